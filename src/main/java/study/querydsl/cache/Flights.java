@@ -0,0 +1,31 @@
+package study.querydsl.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * {@link ResultCache}, {@link RequestCoalescer} 의 in-flight 조회 공유 도구
+ */
+final class Flights {
+    /**
+     * 먼저 실행한 조회 결과에 commit 전 변경이 섞여 공유할 수 없음 -> 기다리던 호출은 각자 조회
+     */
+    static final Object UNSHARED = new Object();
+
+    private Flights() {
+    }
+
+    static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
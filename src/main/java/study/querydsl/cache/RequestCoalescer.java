@@ -0,0 +1,72 @@
+package study.querydsl.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import study.querydsl.change.ChangeTracker;
+import study.querydsl.change.TableVersions;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 동시에 들어온 같은 조회를 1번만 실행 (request coalescing)<br/>
+ * : 같은 key(+ table version) 의 조회가 실행 중이면, 뒤에 온 호출은 SQL 을 내지 않고 그 결과를 기다려 공유한다.<br/>
+ * : 결과를 보관하지 않는다. (실행이 끝나면 key 제거; 보관은 {@link ResultCache})<br/>
+ * : 현재 transaction 에 commit 전 변경이 있으면 혼자 실행<br/>
+ * : 실행 후 commit 전 변경이 생겼으면 (loader 안의 auto flush 등) 결과를 공유하지 않고, 기다리던 호출은 각자 실행<br/>
+ * : metric - repository.coalescing{name, result=executed|shared}; shared / (executed + shared) = coalescing 비율
+ */
+@Component
+public class RequestCoalescer {
+    private final TableVersions tableVersions;
+    private final ChangeTracker changeTracker;
+    private final MeterRegistry meterRegistry;
+    private final Map<VersionedKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public RequestCoalescer(TableVersions tableVersions, ChangeTracker changeTracker, MeterRegistry meterRegistry) {
+        this.tableVersions = tableVersions;
+        this.changeTracker = changeTracker;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param name   metric name tag (key 앞에도 붙는다)
+     * @param tables 결과가 의존하는 table
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V execute(String name, Object key, Supplier<V> loader, String... tables) {
+        if (changeTracker.hasPendingChanges(tables)) {
+            return loader.get();
+        }
+        VersionedKey versionedKey = new VersionedKey(name + ":" + key, tableVersions.version(tables));
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(versionedKey, mine);
+        if (running != null) {
+            Object value = Flights.await(running);
+            if (value == Flights.UNSHARED) {
+                count(name, "executed");
+                return loader.get();
+            }
+            count(name, "shared");
+            return (V) value;
+        }
+
+        count(name, "executed");
+        try {
+            V value = loader.get();
+            mine.complete(changeTracker.hasPendingChanges(tables) ? Flights.UNSHARED : value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(versionedKey, mine);
+        }
+    }
+
+    private void count(String name, String result) {
+        meterRegistry.counter("repository.coalescing", "name", name, "result", result).increment();
+    }
+}
@@ -0,0 +1,76 @@
+package study.querydsl.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import study.querydsl.change.ChangeTracker;
+import study.querydsl.change.TableVersions;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * repository 조회 결과 cache ({@link ResultCaches#cache(String, String...)} 로 생성)<br/>
+ * : key 에 조회 시점의 table version 을 포함 -> commit 된 변경 이후에는 이전 결과를 쓰지 않는다.<br/>
+ * : 같은 key 를 동시에 조회하면 1건만 DB 조회, 나머지는 그 결과를 기다린다. (single-flight)<br/>
+ * -> 조회는 호출한 thread (호출한 쪽 transaction) 에서 실행하고, cache 에는 완료 전 future 만 넣는다. (cache lock 을 잡은 채 조회하지 않음)<br/>
+ * : 현재 transaction 에 commit 전 변경이 있거나, 설정에서 꺼져 있으면 cache 를 거치지 않는다.<br/>
+ * : 조회 후 다시 확인해서 commit 전 변경이 생겼으면 (loader 안의 auto flush 등) 저장/공유하지 않고, 기다리던 호출은 각자 조회
+ */
+public class ResultCache<V> {
+    private final AsyncCache<VersionedKey, Object> cache;
+    private final String[] tables;
+    private final TableVersions tableVersions;
+    private final ChangeTracker changeTracker;
+
+    ResultCache(AsyncCache<VersionedKey, Object> cache, String[] tables, TableVersions tableVersions, ChangeTracker changeTracker) {
+        this.cache = cache;
+        this.tables = tables;
+        this.tableVersions = tableVersions;
+        this.changeTracker = changeTracker;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(Object key, Supplier<V> loader) {
+        if (cache == null || changeTracker.hasPendingChanges(tables)) {
+            return loader.get();
+        }
+        VersionedKey versionedKey = new VersionedKey(key, tableVersions.version(tables));
+        ConcurrentMap<VersionedKey, CompletableFuture<Object>> map = cache.asMap();
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = map.putIfAbsent(versionedKey, mine);
+        if (running != null) {
+            Object value = Flights.await(running);
+            return value == Flights.UNSHARED ? loader.get() : (V) value;
+        }
+
+        try {
+            V value = loader.get();
+            if (changeTracker.hasPendingChanges(tables)) {
+                map.remove(versionedKey, mine);
+                mine.complete(Flights.UNSHARED);
+            } else {
+                mine.complete(value);
+            }
+            return value;
+        } catch (RuntimeException | Error e) {
+            map.remove(versionedKey, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.synchronous().invalidateAll();
+        }
+    }
+
+    boolean dependsOn(String table) {
+        for (String t : tables) {
+            if (t.equals(table)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
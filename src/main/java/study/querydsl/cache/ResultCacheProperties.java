@@ -0,0 +1,45 @@
+package study.querydsl.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * repository 결과 cache 설정 (method 별)<br/>
+ * <pre>
+ * result-cache:
+ *   methods:
+ *     member-search:
+ *       maximum-weight: 10000 # cache 전체 row 수
+ *       ttl: 30s
+ * </pre>
+ * : methods 에 없는 cache 는 defaults 사용
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "result-cache")
+public class ResultCacheProperties {
+    private Spec defaults = new Spec();
+    private Map<String, Spec> methods = new HashMap<>();
+
+    public Spec spec(String name) {
+        return methods.getOrDefault(name, defaults);
+    }
+
+    @Getter
+    @Setter
+    public static class Spec {
+        private boolean enabled = true;
+        /**
+         * 결과 row 수 합계 기준 최대 크기 (List 는 size + 1, 그 외 1)
+         */
+        private long maximumWeight = 10_000;
+        private Duration ttl = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,81 @@
+package study.querydsl.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import study.querydsl.change.ChangeTracker;
+import study.querydsl.change.EntityChange;
+import study.querydsl.change.TableVersions;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 이름별 {@link ResultCache} 생성/보관<br/>
+ * : 크기(row 수 weight), TTL 은 {@link ResultCacheProperties} 의 method 별 설정<br/>
+ * : commit 된 변경이 있으면 해당 table 에 의존하는 cache 를 비운다. (version 이 바뀐 entry 는 어차피 쓰이지 않으므로 memory 회수 목적)<br/>
+ * : hit/miss/eviction 은 micrometer cache.* metric (name tag)
+ */
+@Component
+public class ResultCaches {
+    private final ResultCacheProperties properties;
+    private final TableVersions tableVersions;
+    private final ChangeTracker changeTracker;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ResultCache<?>> caches = new ConcurrentHashMap<>();
+
+    public ResultCaches(ResultCacheProperties properties, TableVersions tableVersions,
+                        ChangeTracker changeTracker, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.tableVersions = tableVersions;
+        this.changeTracker = changeTracker;
+        this.meterRegistry = meterRegistry;
+        changeTracker.subscribe(this::invalidate);
+    }
+
+    /**
+     * @param name   설정 key (result-cache.methods.{name})
+     * @param tables 결과가 의존하는 table ({@link TableVersions#MEMBER} ...)
+     */
+    @SuppressWarnings("unchecked")
+    public <V> ResultCache<V> cache(String name, String... tables) {
+        return (ResultCache<V>) caches.computeIfAbsent(name, n -> create(n, tables));
+    }
+
+    private ResultCache<?> create(String name, String[] tables) {
+        ResultCacheProperties.Spec spec = properties.spec(name);
+        if (!spec.isEnabled()) {
+            return new ResultCache<>(null, tables, tableVersions, changeTracker);
+        }
+        AsyncCache<VersionedKey, Object> cache = Caffeine.newBuilder()
+                .maximumWeight(spec.getMaximumWeight())
+                .weigher((VersionedKey key, Object value) -> weight(value))
+                .expireAfterWrite(spec.getTtl())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), name);
+        return new ResultCache<>(cache, tables, tableVersions, changeTracker);
+    }
+
+    private void invalidate(List<EntityChange> changes) {
+        for (ResultCache<?> cache : caches.values()) {
+            for (EntityChange change : changes) {
+                if (cache.dependsOn(change.getTable())) {
+                    cache.invalidateAll();
+                    break;
+                }
+            }
+        }
+    }
+
+    private static int weight(Object value) {
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).size() + 1;
+        }
+        return 1;
+    }
+}
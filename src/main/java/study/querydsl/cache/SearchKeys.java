@@ -0,0 +1,38 @@
+package study.querydsl.cache;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+
+/**
+ * member 검색 cache key<br/>
+ * : 빈 문자열은 조건 없음(null) 과 같게 취급 (MemberRepositoryCustomImpl hasText 조건과 동일)
+ */
+public final class SearchKeys {
+    private SearchKeys() {
+    }
+
+    public static String of(String name, MemberSearchCondition condition) {
+        return of(name, condition, Pageable.unpaged());
+    }
+
+    public static String of(String name, MemberSearchCondition condition, Pageable pageable) {
+        StringBuilder key = new StringBuilder(name)
+                .append("|u=").append(normalize(condition.getUsername()))
+                .append("|um=").append(condition.getUsernameMatch())
+                .append("|ui=").append(condition.isUsernameIgnoreCase())
+                .append("|t=").append(normalize(condition.getTeamName()))
+                .append("|goe=").append(condition.getAgeGoe())
+                .append("|loe=").append(condition.getAgeLoe());
+        if (pageable.isPaged()) {
+            key.append("|p=").append(pageable.getPageNumber())
+                    .append("|s=").append(pageable.getPageSize())
+                    .append("|o=").append(pageable.getSort());
+        }
+        return key.toString();
+    }
+
+    private static String normalize(String value) {
+        return StringUtils.hasText(value) ? value : null;
+    }
+}
@@ -0,0 +1,118 @@
+package study.querydsl.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+import study.querydsl.change.ChangeTracker;
+import study.querydsl.change.TableVersions;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * member 검색 응답 cache (ETag)<br/>
+ * : key = 정규화한 {@link MemberSearchCondition} + {@link Pageable}<br/>
+ * : ETag = process epoch + key + member/team {@link TableVersions} (+ Accept; JSON, Smile, CBOR 응답을 구분)<br/>
+ * -> version counter 는 memory 에만 있어 재시작하면 0 부터 다시 세므로, 이전 process 의 ETag 와 겹치지 않게 epoch 를 넣는다.<br/>
+ * : If-None-Match 가 맞으면 DB 조회 없이 304<br/>
+ * -> Last-Modified 는 보내지 않는다. (HTTP date 는 초 단위라 같은 초 안의 변경 후에도 If-Modified-Since 가 맞아 304 가 나갈 수 있음)<br/>
+ * : 같은 version 의 결과가 있으면 재사용, 없으면 조회 후 저장 (최대 MAX_ENTRIES 개, 넘치면 Caffeine 이 적게 쓰인 것부터 제거)<br/>
+ * : 현재 transaction 에 commit 전 변경이 있으면 cache, ETag 를 쓰지 않는다. (version 은 commit 후에 바뀜)<br/>
+ * : 조회 후 commit 전 변경이 생겼으면 저장하지 않고 Cache-Control: no-store 로 응답 (client 가 ETag 를 재사용하지 않게)
+ */
+@Component
+public class SearchResponseCache {
+    private static final int MAX_ENTRIES = 1024;
+    private static final String[] TABLES = {TableVersions.MEMBER, TableVersions.TEAM};
+
+    private final TableVersions tableVersions;
+    private final ChangeTracker changeTracker;
+    private final Cache<String, Entry> entries = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .build();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter notModified;
+    private final Counter bypass;
+
+    public SearchResponseCache(TableVersions tableVersions, ChangeTracker changeTracker, MeterRegistry meterRegistry) {
+        this.tableVersions = tableVersions;
+        this.changeTracker = changeTracker;
+        this.hits = counter(meterRegistry, "hit");
+        this.misses = counter(meterRegistry, "miss");
+        this.notModified = counter(meterRegistry, "not_modified");
+        this.bypass = counter(meterRegistry, "bypass");
+    }
+
+    /**
+     * @param name   endpoint 구분 (v1, v2 ...)
+     * @param loader cache miss 시 실행할 조회
+     * @return 304 인 경우 null (응답은 이미 작성됨)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> respond(String name, MemberSearchCondition condition, Pageable pageable,
+                                         WebRequest request, Supplier<T> loader) {
+        if (changeTracker.hasPendingChanges(TABLES)) {
+            bypass.increment();
+            return ResponseEntity.ok().body(loader.get());
+        }
+
+        String key = SearchKeys.of(name, condition, pageable);
+        long version = tableVersions.version(TABLES);
+        String etag = etag(tableVersions.epoch(), key, version, request.getHeader(HttpHeaders.ACCEPT));
+        if (request.checkNotModified(etag)) {
+            notModified.increment();
+            return null;
+        }
+
+        Entry entry = entries.getIfPresent(key);
+        if (entry != null && entry.version == version) {
+            hits.increment();
+            return ok((T) entry.value);
+        }
+        misses.increment();
+        T body = loader.get();
+        if (changeTracker.hasPendingChanges(TABLES)) {
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    .body(body);
+        }
+        entries.put(key, new Entry(version, body));
+        return ok(body);
+    }
+
+    private static <T> ResponseEntity<T> ok(T body) {
+        return ResponseEntity.ok()
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body);
+    }
+
+    private static String etag(long epoch, String key, long version, String accept) {
+        int hash = Objects.hash(key, accept);
+        return "\"" + Long.toHexString(epoch) + "-" + Long.toHexString(version) + "-" + Integer.toHexString(hash) + "\"";
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("member.search.response.cache")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static class Entry {
+        private final long version;
+        private final Object value;
+
+        private Entry(long version, Object value) {
+            this.version = version;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package study.querydsl.cache;
+
+import java.util.Objects;
+
+/**
+ * cache / coalescing key + 조회 시점 table version
+ */
+final class VersionedKey {
+    private final Object key;
+    private final long version;
+
+    VersionedKey(Object key, long version) {
+        this.key = key;
+        this.version = version;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof VersionedKey)) return false;
+        VersionedKey that = (VersionedKey) o;
+        return version == that.version && key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(key, version);
+    }
+
+    @Override
+    public String toString() {
+        return key + "@" + version;
+    }
+}
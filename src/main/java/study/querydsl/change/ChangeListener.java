@@ -0,0 +1,15 @@
+package study.querydsl.change;
+
+import java.util.List;
+
+/**
+ * {@link ChangeTracker#subscribe(ChangeListener)} 구독자<br/>
+ * : commit 이후 commit 한 thread 에서 호출되므로 오래 걸리는 작업은 넘겨서 처리한다.
+ */
+@FunctionalInterface
+public interface ChangeListener {
+    /**
+     * @param changes 한 transaction 에서 commit 된 변경 (발생 순서)
+     */
+    void onCommit(List<EntityChange> changes);
+}
@@ -0,0 +1,154 @@
+package study.querydsl.change;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * entity 변경 수집 -> commit 이후 {@link TableVersions} 증가 + 구독자 통지<br/>
+ * : entity 변경은 {@link HibernateChangeListener}, bulk update/delete 는 repository 가 {@link #recordBulk(Class)} 로 알린다.<br/>
+ * : transaction 안의 변경은 transaction 에 묶어 두었다가 commit 시에만 반영 (rollback 이면 버림)<br/>
+ * : REQUIRES_NEW 등으로 transaction 이 중단(suspend)되면 묶어 둔 변경도 함께 떼어 두므로, 안쪽 transaction 의 변경은 안쪽 commit 시에 반영<br/>
+ * : transaction 밖의 변경은 즉시 반영
+ */
+@Slf4j
+@Component
+public class ChangeTracker {
+    private final TableVersions tableVersions;
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    public ChangeTracker(TableVersions tableVersions) {
+        this.tableVersions = tableVersions;
+    }
+
+    public void subscribe(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void record(EntityChange change) {
+        PendingChanges pending = pending(true);
+        if (pending == null) {
+            publish(Collections.singletonList(change));
+        } else {
+            pending.changes.add(change);
+        }
+    }
+
+    public void recordBulk(Class<?> entityType) {
+        record(EntityChange.bulk(entityType));
+    }
+
+    /**
+     * persist/merge/remove 호출 시점 (flush 전); 어떤 row 가 바뀌는지는 flush 때 {@link #record(EntityChange)} 로 기록된다.
+     */
+    public void recordUnflushed() {
+        PendingChanges pending = pending(true);
+        if (pending != null) {
+            pending.unflushed = true;
+        }
+    }
+
+    /**
+     * 현재 transaction 에 아직 commit 되지 않은 변경이 있는지<br/>
+     * : 있으면 이 transaction 의 조회 결과는 다른 transaction 과 공유하는 cache 에 넣으면 안 된다.<br/>
+     * : flush 된 변경은 table 별로, persist/merge/remove 후 아직 flush 되지 않은 변경은 table 구분 없이 본다.
+     * (조회 query 가 auto flush 하면서 결과에 섞이므로)<br/>
+     * : 조회마다 호출되므로 persistence context 를 dirty check 하지 않는다. -> managed entity 의 값만 바꾼 변경은 flush 된 뒤에 보인다.
+     */
+    public boolean hasPendingChanges(String... tables) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return false;
+        }
+        PendingChanges pending = pending(false);
+        if (pending == null) {
+            return false;
+        }
+        if (pending.unflushed) {
+            return true;
+        }
+        for (EntityChange change : pending.changes) {
+            for (String table : tables) {
+                if (change.getTable().equals(table)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 현재 transaction 의 변경을 통지 대상에서 제외 (기준 데이터 적재 등)
+     */
+    public void discardPendingChanges() {
+        PendingChanges pending = pending(false);
+        if (pending != null) {
+            pending.changes.clear();
+            pending.unflushed = false;
+        }
+    }
+
+    private PendingChanges pending(boolean create) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null && create) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private void publish(List<EntityChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        for (EntityChange change : changes) {
+            tableVersions.bump(change.getTable());
+        }
+        for (ChangeListener listener : listeners) {
+            try {
+                listener.onCommit(changes);
+            } catch (RuntimeException e) {
+                log.warn("change listener failed: {}", listener, e);
+            }
+        }
+    }
+
+    /**
+     * transaction 단위로 bind; suspend/resume 은 ResourceHolderSynchronization 과 같은 방식
+     */
+    private class PendingChanges implements TransactionSynchronization {
+        private final List<EntityChange> changes = new ArrayList<>();
+        private boolean unflushed;
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ChangeTracker.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(ChangeTracker.this, this);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ChangeTracker.this);
+            if (status == STATUS_COMMITTED) {
+                publish(changes);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package study.querydsl.change;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * commit 된 변경 1건<br/>
+ * : INSERT / UPDATE / DELETE 는 entity 1건 (id, 변경 전/후 state)<br/>
+ * : BULK 는 bulk update/delete 로 어떤 row 가 바뀌었는지 모름 (id, state 없음) -> subscriber 는 전체 재계산
+ */
+@Getter
+@ToString(of = {"type", "table", "id"})
+public class EntityChange {
+    public enum Type {
+        INSERT, UPDATE, DELETE, BULK
+    }
+
+    private final Type type;
+    private final Class<?> entityType;
+    private final String table;
+    private final Serializable id;
+    /**
+     * 변경 전 property 값 (UPDATE, DELETE)
+     */
+    private final Map<String, Object> previousState;
+    /**
+     * 변경 후 property 값 (INSERT, UPDATE)
+     */
+    private final Map<String, Object> state;
+
+    EntityChange(Type type, Class<?> entityType, Serializable id, Map<String, Object> previousState, Map<String, Object> state) {
+        this.type = type;
+        this.entityType = entityType;
+        this.table = TableVersions.tableOf(entityType);
+        this.id = id;
+        this.previousState = previousState == null ? Collections.emptyMap() : previousState;
+        this.state = state == null ? Collections.emptyMap() : state;
+    }
+
+    public static EntityChange bulk(Class<?> entityType) {
+        return new EntityChange(Type.BULK, entityType, null, null, null);
+    }
+
+    public boolean isOf(Class<?> type) {
+        return entityType == type;
+    }
+}
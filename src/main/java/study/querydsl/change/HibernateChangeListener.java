@@ -0,0 +1,107 @@
+package study.querydsl.change;
+
+import org.hibernate.event.spi.DeleteEvent;
+import org.hibernate.event.spi.DeleteEventListener;
+import org.hibernate.event.spi.MergeEvent;
+import org.hibernate.event.spi.MergeEventListener;
+import org.hibernate.event.spi.PersistEvent;
+import org.hibernate.event.spi.PersistEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * hibernate flush 시점의 insert/update/delete 를 {@link ChangeTracker} 에 기록<br/>
+ * : 변경 전/후 state 를 property 이름으로 복사해 둔다. (Member.changeTeam 등 dirty checking 포함)<br/>
+ * : persist/merge/remove 호출은 flush 전이라도 {@link ChangeTracker#recordUnflushed()} 로 알린다.
+ */
+public class HibernateChangeListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener,
+        PersistEventListener, MergeEventListener, DeleteEventListener {
+    private final ChangeTracker changeTracker;
+
+    public HibernateChangeListener(ChangeTracker changeTracker) {
+        this.changeTracker = changeTracker;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        EntityPersister persister = event.getPersister();
+        changeTracker.record(new EntityChange(EntityChange.Type.INSERT, persister.getMappedClass(), event.getId(),
+                null, state(persister, event.getState())));
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        EntityPersister persister = event.getPersister();
+        changeTracker.record(new EntityChange(EntityChange.Type.UPDATE, persister.getMappedClass(), event.getId(),
+                state(persister, event.getOldState()), state(persister, event.getState())));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        EntityPersister persister = event.getPersister();
+        changeTracker.record(new EntityChange(EntityChange.Type.DELETE, persister.getMappedClass(), event.getId(),
+                state(persister, event.getDeletedState()), null));
+    }
+
+    @Override
+    public void onPersist(PersistEvent event) {
+        changeTracker.recordUnflushed();
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void onPersist(PersistEvent event, Map createdAlready) {
+        changeTracker.recordUnflushed();
+    }
+
+    @Override
+    public void onMerge(MergeEvent event) {
+        changeTracker.recordUnflushed();
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void onMerge(MergeEvent event, Map copiedAlready) {
+        changeTracker.recordUnflushed();
+    }
+
+    @Override
+    public void onDelete(DeleteEvent event) {
+        changeTracker.recordUnflushed();
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void onDelete(DeleteEvent event, Set transientEntities) {
+        changeTracker.recordUnflushed();
+    }
+
+    /**
+     * commit 이후(afterCompletion)에 통지하므로 hibernate 의 post-commit 처리는 사용하지 않는다.
+     */
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private static Map<String, Object> state(EntityPersister persister, Object[] values) {
+        if (values == null) {
+            return null;
+        }
+        String[] names = persister.getPropertyNames();
+        Map<String, Object> state = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            state.put(names[i], values[i]);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,52 @@
+package study.querydsl.change;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * table 단위 변경 version counter<br/>
+ * : {@link ChangeTracker} 가 commit 이후 증가시킨다. (entity insert/update/delete, bulk update/delete)<br/>
+ * : cache 는 조회 시점의 version 을 key 에 포함시켜, version 이 바뀌면 이전 결과를 쓰지 않는다.<br/>
+ * : 조회(version)는 lock 없이 읽는다.
+ */
+@Component
+public class TableVersions {
+    public static final String MEMBER = "member";
+    public static final String TEAM = "team";
+
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final long startedAt = System.currentTimeMillis();
+
+    /**
+     * entity class -> table 이름 (SpringPhysicalNamingStrategy 기본 규칙; Member -> member)
+     */
+    public static String tableOf(Class<?> entityType) {
+        return entityType.getSimpleName().toLowerCase();
+    }
+
+    public void bump(String table) {
+        versions.computeIfAbsent(table, t -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * 각 table version 의 합; table 중 하나라도 바뀌면 값이 커진다.
+     */
+    public long version(String... tables) {
+        long version = 0;
+        for (String table : tables) {
+            AtomicLong counter = versions.get(table);
+            version += counter == null ? 0 : counter.get();
+        }
+        return version;
+    }
+
+    /**
+     * process 시작 시각; version 은 process 마다 0 부터 다시 세므로 외부에 노출하는 값 (ETag 등) 은 epoch 와 같이 쓴다.
+     */
+    public long epoch() {
+        return startedAt;
+    }
+}
@@ -0,0 +1,38 @@
+package study.querydsl.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * 내부 consumer 용 binary 응답 (Accept header 로 content negotiation)<br/>
+ * : application/x-jackson-smile, application/cbor<br/>
+ * : 기본 converter 대신 Spring Boot 의 {@link Jackson2ObjectMapperBuilder} 설정(module, feature)을 그대로 쓰도록 bean 으로 등록한다.<br/>
+ * : Accept 가 없거나 application/json 이면 기존처럼 JSON 응답.
+ */
+@Configuration(proxyBeanMethods = false)
+public class BinaryFormatConfig {
+
+    /**
+     * Smile: field 이름 + 짧은 문자열 값(teamName 등)을 back-reference 로 공유
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        SmileFactory factory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        ObjectMapper objectMapper = builder.factory(factory).build();
+        return new MappingJackson2SmileHttpMessageConverter(objectMapper);
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.cbor().build());
+    }
+}
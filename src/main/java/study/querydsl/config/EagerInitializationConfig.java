@@ -0,0 +1,37 @@
+package study.querydsl.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.cache.ResultCaches;
+import study.querydsl.change.ChangeTracker;
+import study.querydsl.controller.InitMember;
+import study.querydsl.search.UsernameIndex;
+import study.querydsl.service.TeamStatisticsService;
+import study.querydsl.sql.WindowFunctionSupport;
+import study.querydsl.statistics.SlowQueryReporter;
+
+/**
+ * spring.main.lazy-initialization 이 켜져 있어도 context 시작 시 생성해야 하는 bean<br/>
+ * : 생성자에서 {@link ChangeTracker} 를 구독하는 bean; 주입받는 곳이 없으면 생성되지 않아 commit 통지를 놓친다.
+ * (UsernameIndex, TeamStatisticsService, ResultCaches 의 cache 무효화)<br/>
+ * : @Scheduled method 를 가진 bean; 생성되어야 scheduler 에 등록된다. (SlowQueryReporter, TeamStatisticsService.reconcile, WindowFunctionSupport.retryProbe)<br/>
+ * : @EventListener(ApplicationReadyEvent) 로 시작 작업을 하는 bean (InitMember, bootstrap, WindowFunctionSupport.probe)
+ */
+@Configuration(proxyBeanMethods = false)
+public class EagerInitializationConfig {
+
+    /**
+     * BeanFactoryPostProcessor 단계에서 조회되므로 static
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerInitializationExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                UsernameIndex.class,
+                TeamStatisticsService.class,
+                ResultCaches.class,
+                SlowQueryReporter.class,
+                InitMember.class,
+                WindowFunctionSupport.class);
+    }
+}
@@ -0,0 +1,40 @@
+package study.querydsl.config;
+
+import com.querydsl.sql.H2Templates;
+import com.querydsl.sql.SQLQueryFactory;
+import com.querydsl.sql.SQLTemplates;
+import com.querydsl.sql.spring.SpringExceptionTranslator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.sql.JpaSyncConnectionProvider;
+import study.querydsl.sql.SMember;
+import study.querydsl.sql.STeam;
+import study.querydsl.statistics.SqlQueryStatistics;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+
+/**
+ * querydsl-sql; JPQL 로 표현할 수 없는 query (window function, from 절 subquery 등) 용<br/>
+ * : table metadata 는 {@link SMember}, {@link STeam}<br/>
+ * : JPA 와 같은 transaction / connection 을 사용 ({@link JpaSyncConnectionProvider})<br/>
+ * : SQLException 은 Spring DataAccessException 으로 변환<br/>
+ * : 실행 통계는 {@link SqlQueryStatistics} 에 모은다. (Hibernate statistics 에 잡히지 않으므로)
+ */
+@Configuration(proxyBeanMethods = false)
+public class QuerydslSqlConfig {
+
+    @Bean
+    public SQLTemplates sqlTemplates() {
+        return H2Templates.builder().build();
+    }
+
+    @Bean
+    public SQLQueryFactory sqlQueryFactory(SQLTemplates sqlTemplates, DataSource dataSource, EntityManager entityManager,
+                                           SqlQueryStatistics sqlQueryStatistics) {
+        com.querydsl.sql.Configuration configuration = new com.querydsl.sql.Configuration(sqlTemplates);
+        configuration.setExceptionTranslator(new SpringExceptionTranslator());
+        configuration.addListener(sqlQueryStatistics);
+        return new SQLQueryFactory(configuration, new JpaSyncConnectionProvider(dataSource, entityManager));
+    }
+}
@@ -1,26 +1,46 @@
 package study.querydsl.controller;
 
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
 
-import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
 @Profile("local")//INFO 10652 --- [           main] study.querydsl.QuerydslApplication       : The following 1 profile is active: "local"
 @Component
-@RequiredArgsConstructor
 public class InitMember {
 
     private final InitMemberService initMemberService;
+    private final TaskExecutor taskExecutor;
+    private final boolean async;
 
-    @PostConstruct
-    //@Transactional => 스프링 lifecycle 동시사용 안되기 때문에 @PostConstruct, @Transactional 분리하여 구현
+    public InitMember(InitMemberService initMemberService,
+                      @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                      @Value("${init-member.async:true}") boolean async) {
+        this.initMemberService = initMemberService;
+        this.taskExecutor = taskExecutor;
+        this.async = async;
+    }
+
+    /**
+     * @PostConstruct 에서 seed 하면 context 시작이 그만큼 늦어지므로,
+     * context 가 준비된 뒤(ApplicationReadyEvent) 실행하고 기본은 background thread 에서 실행한다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    //@Transactional => 같은 bean 내부 호출 및 background thread 실행시 proxy 를 거치도록 InitMemberService 로 분리하여 구현
     public void init() {
+        if (async) {
+            taskExecutor.execute(initMemberService::init);
+            return;
+        }
         initMemberService.init();
     }
 
@@ -32,6 +52,13 @@ public class InitMember {
 
         @Transactional
         public void init() {
+            /* schema 를 flyway 가 관리하므로 재시작시 데이터가 남아있음; 이미 seed 된 경우 생략 */
+            Long memberCount = em.createQuery("select count(m) from Member m", Long.class)
+                    .getSingleResult();
+            if (memberCount > 0) {
+                return;
+            }
+
             Team teamA = Team.builder().name("teamA").build();
             Team teamB = Team.builder().name("teamB").build();
 
@@ -1,23 +1,40 @@
 package study.querydsl.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import study.querydsl.cache.SearchResponseCache;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberUsernameDto;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.service.MemberSearchStreamService;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
+    private static final int MAX_SUGGESTIONS = 100;
 
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final MemberSearchStreamService memberSearchStreamService;
+    private final ObjectMapper objectMapper;
+    private final SearchResponseCache searchResponseCache;
 
     /**
      * select member0_.member_id as col_0_0_, member0_.username as col_1_0_, member0_.age as col_2_0_, team1_.id as col_3_0_, team1_.name as col_4_0_
@@ -30,12 +47,59 @@ public class MemberController {
      * and member0_.age<=?
      */
     @GetMapping("/v1/members")
-    public List<MemberTeamDto> searchMembersV1(MemberSearchCondition condition) {
-        return memberJpaRepository.search(condition);
+    public ResponseEntity<List<MemberTeamDto>> searchMembersV1(MemberSearchCondition condition, WebRequest request) {
+        return searchResponseCache.respond("v1", condition, Pageable.unpaged(), request,
+                () -> memberJpaRepository.search(condition));
     }
 
+    /**
+     * 대용량 조회; {@link MemberTeamColumns} 가 row 단위로 직접 JSON 을 출력 (응답 형태는 v1 과 같음)
+     */
+    @GetMapping("/v1/members/columns")
+    public MemberTeamColumns searchMembersColumns(MemberSearchCondition condition) {
+        return memberRepository.searchColumns(condition);
+    }
+
+    /**
+     * username 자동완성; 색인이 구성되어 있으면 DB 조회 없이 응답
+     */
+    @GetMapping("/v1/members/usernames")
+    public List<MemberUsernameDto> suggestUsernames(@RequestParam String username,
+                                                    @RequestParam(defaultValue = "10") int limit) {
+        return memberRepository.suggestUsernames(username, Math.min(limit, MAX_SUGGESTIONS));
+    }
+
+    /**
+     * v1, v2 는 {@link SearchResponseCache} 를 거친다. (ETag 가 같으면 DB 조회 없이 304)
+     */
     @GetMapping("/v2/members")
-    public Page<MemberTeamDto> searchMembersV2(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPage(condition, pageable);
+    public ResponseEntity<Page<MemberTeamDto>> searchMembersV2(MemberSearchCondition condition, Pageable pageable, WebRequest request) {
+        return searchResponseCache.respond("v2", condition, pageable, request,
+                () -> memberRepository.searchPage(condition, pageable));
+    }
+
+    /**
+     * 무한 scroll 용; v2 와 같은 조건이지만 전체 건수 대신 다음 page 존재 여부(last, hasNext)만 (count query 없음)
+     */
+    @GetMapping("/v3/members")
+    public ResponseEntity<Slice<MemberTeamDto>> searchMembersV3(MemberSearchCondition condition, Pageable pageable, WebRequest request) {
+        return searchResponseCache.respond("v3", condition, pageable, request,
+                () -> memberRepository.searchSlice(condition, pageable));
+    }
+
+    /**
+     * v2 와 같은 조건/응답(content, totalElements, ...) 이지만 List, Page 를 만들지 않고<br/>
+     * DB cursor 에서 읽은 row 를 바로 response output stream 에 쓴다. (첫 row 출력 후 flush)<br/>
+     * : 도중에 실패하면 (timeout, DB 오류) 열린 배열/객체를 닫지 않는다. (AUTO_CLOSE_JSON_CONTENT 해제)<br/>
+     * -> 이미 200 이 나간 뒤라도 client 는 잘린 JSON 으로 실패를 알 수 있다. (row 가 빠진 정상 page 로 보이지 않음)
+     */
+    @GetMapping("/v2/members/stream")
+    public void searchMembersV2Stream(MemberSearchCondition condition, Pageable pageable, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            memberSearchStreamService.writePage(condition, pageable, gen);
+        }
     }
 }
@@ -0,0 +1,66 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.AgeHistogramDto;
+import study.querydsl.dto.TeamStatisticsDto;
+import study.querydsl.service.TeamStatisticsService;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamStatisticsService teamStatisticsService;
+
+    /**
+     * team 별 count, sum, avg, min, max of member.age<br/>
+     * : 미리 계산해 둔 집계를 반환 (member table 을 읽지 않음)
+     */
+    @GetMapping("/v1/teams/statistics")
+    public List<TeamStatisticsDto> teamStatistics() {
+        return teamStatisticsService.findAll();
+    }
+
+    @GetMapping("/v1/teams/{teamName}/statistics")
+    public ResponseEntity<TeamStatisticsDto> teamStatistics(@PathVariable String teamName) {
+        return ResponseEntity.of(teamStatisticsService.findByTeamName(teamName));
+    }
+
+    /**
+     * member.age 분포; teamName 이 없으면 전체 team 합산<br/>
+     * : 구간이 너무 많으면 폭을 넓혀서 반환 (응답의 bucketWidth 가 실제 폭)
+     */
+    @GetMapping("/v1/teams/ages/histogram")
+    public ResponseEntity<AgeHistogramDto> ageHistogram(@RequestParam(required = false) String teamName,
+                                                        @RequestParam(defaultValue = "10") int bucketWidth) {
+        if (bucketWidth <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(teamStatisticsService.ageHistogram(teamName, bucketWidth));
+    }
+
+    /**
+     * ex. p=0.5 -> 중앙값, p=0.9 -> 90 percentile
+     */
+    @GetMapping("/v1/teams/ages/percentile")
+    public ResponseEntity<Integer> agePercentile(@RequestParam(required = false) String teamName,
+                                                 @RequestParam double p) {
+        if (!(p > 0 && p <= 1)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ofNullable(teamStatisticsService.agePercentile(teamName, p));
+    }
+
+    @GetMapping("/v1/teams/ages/count")
+    public long countByAge(@RequestParam(required = false) String teamName,
+                           @RequestParam(required = false) Integer ageGoe,
+                           @RequestParam(required = false) Integer ageLoe) {
+        return teamStatisticsService.countByAge(teamName, ageGoe, ageLoe);
+    }
+}
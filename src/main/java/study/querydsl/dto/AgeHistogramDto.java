@@ -0,0 +1,43 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * member.age 분포 (고정 폭 구간)<br/>
+ * : teamName 이 null 이면 전체 team 합산
+ */
+@Getter
+@ToString
+public class AgeHistogramDto {
+    private String teamName;
+    private long count;
+    private int bucketWidth;
+    private List<Bucket> buckets;
+
+    public AgeHistogramDto(String teamName, long count, int bucketWidth, List<Bucket> buckets) {
+        this.teamName = teamName;
+        this.count = count;
+        this.bucketWidth = bucketWidth;
+        this.buckets = buckets;
+    }
+
+    /**
+     * ageGoe &lt;= age &lt;= ageLoe 인 member 수
+     */
+    @Getter
+    @ToString
+    public static class Bucket {
+        private int ageGoe;
+        private int ageLoe;
+        private long count;
+
+        public Bucket(int ageGoe, int ageLoe, long count) {
+            this.ageGoe = ageGoe;
+            this.ageLoe = ageLoe;
+            this.count = count;
+        }
+    }
+}
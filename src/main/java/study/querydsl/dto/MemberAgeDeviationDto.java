@@ -0,0 +1,24 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * selectSubQueryTest: select username, (select avg(age) from member) - age
+ */
+@Getter
+@ToString
+public class MemberAgeDeviationDto {
+    private String username;
+    private int age;
+    /**
+     * 전체 평균 나이 - age
+     */
+    private double deviation;
+
+    public MemberAgeDeviationDto(String username, int age, double deviation) {
+        this.username = username;
+        this.age = age;
+        this.deviation = deviation;
+    }
+}
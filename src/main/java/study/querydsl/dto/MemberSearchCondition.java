@@ -13,12 +13,27 @@ public class MemberSearchCondition {
     private String teamName;
     private Integer ageGoe;
     private Integer ageLoe;
+    /**
+     * username 비교 방식 (기본 EXACT)
+     */
+    private UsernameMatch usernameMatch;
+    /**
+     * true 이면 username 대소문자 무시 (member.username_lower column 으로 비교)
+     */
+    private boolean usernameIgnoreCase;
 
     @Builder
-    private MemberSearchCondition(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+    private MemberSearchCondition(String username, String teamName, Integer ageGoe, Integer ageLoe,
+                                  UsernameMatch usernameMatch, boolean usernameIgnoreCase) {
         this.username = username;
         this.teamName = teamName;
         this.ageGoe = ageGoe;
         this.ageLoe = ageLoe;
+        this.usernameMatch = usernameMatch;
+        this.usernameIgnoreCase = usernameIgnoreCase;
+    }
+
+    public UsernameMatch getUsernameMatch() {
+        return usernameMatch == null ? UsernameMatch.EXACT : usernameMatch;
     }
 }
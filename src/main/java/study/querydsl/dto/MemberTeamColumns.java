@@ -0,0 +1,230 @@
+package study.querydsl.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 대용량 {@link MemberTeamDto} 조회 결과를 column 단위 primitive 배열로 저장<br/>
+ * : row 마다 DTO 객체, boxed Long(memberId, teamId), teamName String 참조를 두지 않는다.<br/>
+ * : teamName 은 dictionary encoding (teamNameCodes -> teamNames), 팀이 없는 row 는 code -1<br/>
+ * : JSON 직렬화시 [{"memberId":..,"username":..,"age":..,"teamId":..,"teamName":..}, ...] 로 row 단위 streaming 출력
+ */
+public class MemberTeamColumns extends JsonSerializable.Base {
+    private static final int NO_TEAM = -1;
+
+    private final int size;
+    private final long[] memberIds;
+    private final String[] usernames;
+    private final int[] ages;
+    private final long[] teamIds;
+    private final int[] teamNameCodes;
+    private final String[] teamNames;
+
+    private MemberTeamColumns(int size, long[] memberIds, String[] usernames, int[] ages,
+                              long[] teamIds, int[] teamNameCodes, String[] teamNames) {
+        this.size = size;
+        this.memberIds = memberIds;
+        this.usernames = usernames;
+        this.ages = ages;
+        this.teamIds = teamIds;
+        this.teamNameCodes = teamNameCodes;
+        this.teamNames = teamNames;
+    }
+
+    public static Builder builder() {
+        return new Builder(64);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getMemberId(int row) {
+        return memberIds[row];
+    }
+
+    public String getUsername(int row) {
+        return usernames[row];
+    }
+
+    public int getAge(int row) {
+        return ages[row];
+    }
+
+    public boolean hasTeam(int row) {
+        return teamNameCodes[row] != NO_TEAM;
+    }
+
+    public Long getTeamId(int row) {
+        return hasTeam(row) ? teamIds[row] : null;
+    }
+
+    public String getTeamName(int row) {
+        return hasTeam(row) ? teamNames[teamNameCodes[row]] : null;
+    }
+
+    /**
+     * row view; 같은 {@link Row} 인스턴스를 재사용하므로 consumer 밖으로 참조를 넘기지 말 것
+     */
+    public void forEach(Consumer<Row> consumer) {
+        Row row = new Row();
+        for (int i = 0; i < size; i++) {
+            row.index = i;
+            consumer.accept(row);
+        }
+    }
+
+    public MemberTeamDto toDto(int row) {
+        return new MemberTeamDto(getMemberId(row), getUsername(row), getAge(row), getTeamId(row), getTeamName(row));
+    }
+
+    public List<MemberTeamDto> toDtoList() {
+        List<MemberTeamDto> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(toDto(i));
+        }
+        return result;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeStartArray();
+        for (int i = 0; i < size; i++) {
+            gen.writeStartObject();
+            gen.writeNumberField("memberId", memberIds[i]);
+            gen.writeStringField("username", usernames[i]);
+            gen.writeNumberField("age", ages[i]);
+            if (hasTeam(i)) {
+                gen.writeNumberField("teamId", teamIds[i]);
+                gen.writeStringField("teamName", teamNames[teamNameCodes[i]]);
+            } else {
+                gen.writeNullField("teamId");
+                gen.writeNullField("teamName");
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+        serialize(gen, serializers);
+    }
+
+    public class Row {
+        private int index;
+
+        public int getIndex() {
+            return index;
+        }
+
+        public long getMemberId() {
+            return MemberTeamColumns.this.getMemberId(index);
+        }
+
+        public String getUsername() {
+            return MemberTeamColumns.this.getUsername(index);
+        }
+
+        public int getAge() {
+            return MemberTeamColumns.this.getAge(index);
+        }
+
+        public Long getTeamId() {
+            return MemberTeamColumns.this.getTeamId(index);
+        }
+
+        public String getTeamName() {
+            return MemberTeamColumns.this.getTeamName(index);
+        }
+    }
+
+    public static class Builder {
+        private int size;
+        private long[] memberIds;
+        private String[] usernames;
+        private int[] ages;
+        private long[] teamIds;
+        private int[] teamNameCodes;
+        private final Map<String, Integer> teamNameDictionary = new HashMap<>();
+        private final List<String> teamNames = new ArrayList<>();
+        private boolean built;
+
+        private Builder(int capacity) {
+            memberIds = new long[capacity];
+            usernames = new String[capacity];
+            ages = new int[capacity];
+            teamIds = new long[capacity];
+            teamNameCodes = new int[capacity];
+        }
+
+        /**
+         * @param teamName teamId 가 null 이면 무시 (left join 으로 팀이 없는 회원)
+         */
+        public Builder add(long memberId, String username, int age, Long teamId, String teamName) {
+            if (built) {
+                throw new IllegalStateException("builder already built");
+            }
+            if (size == memberIds.length) {
+                grow();
+            }
+            memberIds[size] = memberId;
+            usernames[size] = username;
+            ages[size] = age;
+            if (teamId == null) {
+                teamNameCodes[size] = NO_TEAM;
+            } else {
+                teamIds[size] = teamId;
+                teamNameCodes[size] = encode(teamName);
+            }
+            size++;
+            return this;
+        }
+
+        /**
+         * 배열이 꽉 차 있으면 복사 없이 그대로 넘긴다. (build 후 이 builder 는 사용 불가)<br/>
+         * : 남는 칸이 있으면 배열을 1개씩 잘라서 교체 -> 이전 배열은 바로 GC 대상이므로 복사 중 추가 메모리는 배열 1개 분량
+         */
+        public MemberTeamColumns build() {
+            if (built) {
+                throw new IllegalStateException("builder already built");
+            }
+            built = true;
+            if (size != memberIds.length) {
+                memberIds = Arrays.copyOf(memberIds, size);
+                usernames = Arrays.copyOf(usernames, size);
+                ages = Arrays.copyOf(ages, size);
+                teamIds = Arrays.copyOf(teamIds, size);
+                teamNameCodes = Arrays.copyOf(teamNameCodes, size);
+            }
+            return new MemberTeamColumns(size, memberIds, usernames, ages, teamIds, teamNameCodes,
+                    teamNames.toArray(new String[0]));
+        }
+
+        private int encode(String teamName) {
+            return teamNameDictionary.computeIfAbsent(teamName, name -> {
+                teamNames.add(name);
+                return teamNames.size() - 1;
+            });
+        }
+
+        private void grow() {
+            int capacity = memberIds.length * 2;
+            memberIds = Arrays.copyOf(memberIds, capacity);
+            usernames = Arrays.copyOf(usernames, capacity);
+            ages = Arrays.copyOf(ages, capacity);
+            teamIds = Arrays.copyOf(teamIds, capacity);
+            teamNameCodes = Arrays.copyOf(teamNameCodes, capacity);
+        }
+    }
+}
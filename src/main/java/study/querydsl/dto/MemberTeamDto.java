@@ -1,5 +1,6 @@
 package study.querydsl.dto;
 
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.querydsl.core.annotations.QueryProjection;
 import lombok.AccessLevel;
 import lombok.Builder;
@@ -9,7 +10,13 @@ import study.querydsl.entity.Member;
 
 import java.util.Objects;
 
+/**
+ * JSON / Smile / CBOR 응답 공통 DTO<br/>
+ * : Smile / CBOR 도 field 이름을 함께 encoding 하므로 순서와 무관하게 읽을 수 있다.<br/>
+ * : field 순서는 응답을 비교 (diff, snapshot) 하기 쉽도록 고정할 뿐이다.
+ */
 @Getter
+@JsonPropertyOrder({"memberId", "username", "age", "teamId", "teamName"})
 public class MemberTeamDto {
     private Long memberId;
     private String username;
@@ -0,0 +1,21 @@
+package study.querydsl.dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * username 자동완성 응답 (member_id, username)
+ */
+@Getter
+@ToString
+public class MemberUsernameDto {
+    private final Long memberId;
+    private final String username;
+
+    @QueryProjection
+    public MemberUsernameDto(Long memberId, String username) {
+        this.memberId = memberId;
+        this.username = username;
+    }
+}
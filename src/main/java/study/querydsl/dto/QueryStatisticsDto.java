@@ -0,0 +1,29 @@
+package study.querydsl.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class QueryStatisticsDto {
+    private String query;
+    private String origin;
+    private long executionCount;
+    private long executionRowCount;
+    private long executionMaxTime;
+    private long executionAvgTime;
+    private long executionTotalTime;
+
+    @Builder
+    private QueryStatisticsDto(String query, String origin, long executionCount, long executionRowCount,
+                               long executionMaxTime, long executionAvgTime, long executionTotalTime) {
+        this.query = query;
+        this.origin = origin;
+        this.executionCount = executionCount;
+        this.executionRowCount = executionRowCount;
+        this.executionMaxTime = executionMaxTime;
+        this.executionAvgTime = executionAvgTime;
+        this.executionTotalTime = executionTotalTime;
+    }
+}
@@ -0,0 +1,32 @@
+package study.querydsl.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * team 별 member 집계 (count, sum, avg, min, max of age)<br/>
+ * : member 가 없는 team 은 count 0, avg/min/max null
+ */
+@Getter
+@ToString
+public class TeamStatisticsDto {
+    private Long teamId;
+    private String teamName;
+    private long count;
+    private long ageSum;
+    private Double ageAvg;
+    private Integer ageMin;
+    private Integer ageMax;
+
+    @Builder
+    private TeamStatisticsDto(Long teamId, String teamName, long count, long ageSum, Integer ageMin, Integer ageMax) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.count = count;
+        this.ageSum = ageSum;
+        this.ageAvg = count == 0 ? null : (double) ageSum / count;
+        this.ageMin = ageMin;
+        this.ageMax = ageMax;
+    }
+}
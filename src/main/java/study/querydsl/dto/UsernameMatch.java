@@ -0,0 +1,19 @@
+package study.querydsl.dto;
+
+/**
+ * {@link MemberSearchCondition#getUsername()} 비교 방식
+ */
+public enum UsernameMatch {
+    /**
+     * username = ?
+     */
+    EXACT,
+    /**
+     * username &gt;= ? and username &lt; ? + Character.MAX_VALUE (index range scan)
+     */
+    PREFIX,
+    /**
+     * username like %?% (index 사용 불가)
+     */
+    CONTAINS
+}
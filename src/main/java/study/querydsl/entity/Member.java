@@ -6,9 +6,16 @@ import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 import javax.persistence.*;
+import java.util.Locale;
 import java.util.Objects;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_member_username_age", columnList = "username, age"),//usernameEq (+ ageGoe/ageLoe)
+        @Index(name = "idx_member_age", columnList = "age"),//ageGoe, ageLoe
+        @Index(name = "idx_member_team_id_age", columnList = "team_id, age"),//teamNameEq join (+ ageGoe/ageLoe)
+        @Index(name = "idx_member_username_lower", columnList = "username_lower")//username 대소문자 무시 검색
+})
 @Getter
 @NoArgsConstructor
 @ToString(of = {"id", "username", "age"})
@@ -20,6 +27,12 @@ public class Member {
 
     private String username;
 
+    /**
+     * lower(username); 대소문자 무시 검색용 (lower() 함수 조건은 index 를 못 탐)
+     */
+    @Column(name = "username_lower")
+    private String usernameLower;
+
     private int age;
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "team_id")
@@ -34,6 +47,16 @@ public class Member {
         }
     }
 
+    @PrePersist
+    @PreUpdate
+    private void syncUsernameLower() {
+        this.usernameLower = lower(username);
+    }
+
+    public static String lower(String username) {
+        return username == null ? null : username.toLowerCase(Locale.ROOT);
+    }
+
     //==연관관계 메서드==//
     public void changeTeam(Team team) {
         if (this.team != null){
@@ -0,0 +1,63 @@
+package study.querydsl.repository;
+
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.support.BatchLoader;
+import study.querydsl.repository.support.BatchLoader.Deferred;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * findById / findByUsername batch 조회<br/>
+ * : 여러 건을 하나씩 조회하는 대신 key 를 모아 IN 절 1회로 조회 (round-trip 감소)
+ * <pre>
+ * List&lt;Deferred&lt;Optional&lt;Member&gt;&gt;&gt; members = ids.stream().map(memberBatchLoader::findById).collect(toList());
+ * members.get(0).get(); // 여기서 ids 전체를 1번에 조회
+ * </pre>
+ */
+@Component
+public class MemberBatchLoader {
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private final BatchLoader<Long, Optional<Member>> byId;
+    private final BatchLoader<String, List<Member>> byUsername;
+
+    public MemberBatchLoader(MemberJpaRepository memberJpaRepository) {
+        this.byId = new BatchLoader<>(ids -> {
+            Map<Long, Optional<Member>> result = new HashMap<>();
+            memberJpaRepository.findAllById(ids).forEach((id, member) -> result.put(id, Optional.of(member)));
+            return result;
+        }, Optional.empty(), MAX_BATCH_SIZE);
+        this.byUsername = new BatchLoader<>(usernames -> {
+            Map<String, List<Member>> result = new HashMap<>();
+            for (Member member : memberJpaRepository.findByUsernameIn(usernames)) {
+                result.computeIfAbsent(member.getUsername(), u -> new ArrayList<>()).add(member);
+            }
+            /* 같은 key 를 load 한 Deferred 끼리 같은 list 를 공유하므로 수정 불가 */
+            result.replaceAll((username, members) -> Collections.unmodifiableList(members));
+            return result;
+        }, Collections.emptyList(), MAX_BATCH_SIZE);
+    }
+
+    public Deferred<Optional<Member>> findById(Long id) {
+        return byId.load(id);
+    }
+
+    public Deferred<List<Member>> findByUsername(String username) {
+        return byUsername.load(username);
+    }
+
+    public Map<Long, Optional<Member>> findAllById(Collection<Long> ids) {
+        return byId.loadMany(ids);
+    }
+
+    public Map<String, List<Member>> findAllByUsername(Collection<String> usernames) {
+        return byUsername.loadMany(usernames);
+    }
+}
@@ -1,24 +1,34 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.BooleanBuilder;
-import com.querydsl.core.types.Predicate;
-import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
-import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
+import study.querydsl.repository.support.CompiledCondition;
+import study.querydsl.repository.support.MemberConditions;
+import study.querydsl.statistics.QueryOrigins;
 
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.springframework.util.StringUtils.*;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.support.MemberConditions.compile;
+import static study.querydsl.repository.support.MemberProjections.memberTeamDto;
 
 @Repository
 @RequiredArgsConstructor
@@ -40,117 +50,94 @@ public class MemberJpaRepository {
     }
 
     public List<Member> findByUsername(String username) {
-        return em.createQuery("select m " +
-                                "from Member m " +
-                                "where m.username = :username ",
-                        Member.class)
+        TypedQuery<Member> query = em.createQuery("select m " +
+                        "from Member m " +
+                        "where m.username = :username ",
+                Member.class);
+        return QueryOrigins.tag(query, "MemberJpaRepository.findByUsername")
                 .setParameter("username", username)
                 .getResultList();
     }
 
+    /**
+     * id 목록 조회 (영속성 컨텍스트에 있는 entity 는 DB 조회 생략)
+     */
+    public Map<Long, Member> findAllById(Collection<Long> ids) {
+        List<Member> members = em.unwrap(Session.class)
+                .byMultipleIds(Member.class)
+                .enableSessionCheck(true)
+                .multiLoad(new ArrayList<>(ids));
+        Map<Long, Member> result = new HashMap<>();
+        for (Member member : members) {
+            if (member != null) {
+                result.put(member.getId(), member);
+            }
+        }
+        return result;
+    }
+
+    public List<Member> findByUsernameIn(Collection<String> usernames) {
+        TypedQuery<Member> query = em.createQuery("select m " +
+                        "from Member m " +
+                        "where m.username in :usernames ",
+                Member.class);
+        return QueryOrigins.tag(query, "MemberJpaRepository.findByUsernameIn")
+                .setParameter("usernames", usernames)
+                .getResultList();
+    }
+
     public List<Member> findAll() {
-        return em.createQuery("select m from Member m ",
-                        Member.class)
+        TypedQuery<Member> query = em.createQuery("select m from Member m ",
+                Member.class);
+        return QueryOrigins.tag(query, "MemberJpaRepository.findAll")
                 .getResultList();
 
     }
 
     public List<Member> findByUsernameQueryDsl(String username) {
-        return queryFactory
+        JPAQuery<Member> query = queryFactory
                 .selectFrom(member)
-                .where(member.username.eq(username))
-                .fetch();
+                .where(member.username.eq(username));
+        return QueryOrigins.tag(query, "MemberJpaRepository.findByUsernameQueryDsl").fetch();
     }
 
     public List<Member> findAllQueryDsl() {
-        return queryFactory
-                .selectFrom(member)
-                .fetch();
+        return QueryOrigins.tag(queryFactory.selectFrom(member), "MemberJpaRepository.findAllQueryDsl").fetch();
     }
 
     public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
-        BooleanBuilder builder = new BooleanBuilder();
-        if (condition.getAgeLoe() != null) {
-            builder.and(member.age.loe(condition.getAgeLoe()));
-        }
-        if (condition.getAgeGoe() != null) {
-            builder.and(member.age.goe(condition.getAgeGoe()));
+        if (MemberConditions.isEmptyRange(condition.getAgeGoe(), condition.getAgeLoe())) {
+            return Collections.emptyList();
         }
+        BooleanBuilder builder = new BooleanBuilder();
+        builder.and(MemberConditions.ageBetween(condition.getAgeGoe(), condition.getAgeLoe()));//null 이면 무시
         if (hasText(condition.getUsername())) {
             builder.and(member.username.eq(condition.getUsername()));
         }
         if (hasText(condition.getTeamName())) {
             builder.and(team.name.eq(condition.getTeamName()));
         }
-        return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name))
+        JPAQuery<MemberTeamDto> query = queryFactory
+                .select(memberTeamDto())
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(builder)
-                .fetch();
+                .where(builder);
+        return QueryOrigins.tag(query, "MemberJpaRepository.searchByBuilder").fetch();
     }
 
     /** whereParam 장점
      * 1.projection 이 바뀌더라도 where 조건 methods 재사용하여 조립이 가능
+     * : where 조건은 {@link MemberConditions} 공통 compiler 사용
      */
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                        //betweenAge(condition.getAgeGoe(), condition.getAgeLoe())
-                )
-                .fetch();
-    }
-
-    /**
-     * {@link Predicate} vs {@link BooleanExpression}<br/>
-     * {@link BooleanExpression} 권장
-     *  : composition 가능
-     */
-    private BooleanExpression usernameEq(String username) {
-        if (hasText(username)) {
-            return member.username.eq(username);
-        }
-        return null;
-    }
-    private BooleanExpression teamNameEq(String teamName) {
-        if (hasText(teamName)) {
-            return team.name.eq(teamName);
-        }
-        return null;
-    }
-
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        if (ageGoe != null) {
-            return member.age.goe(ageGoe);
-        }
-        return null;
-    }
-
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        if (ageLoe != null) {
-            return member.age.loe(ageLoe);
+        CompiledCondition compiled = compile(condition);
+        if (compiled.isContradiction()) {
+            return Collections.emptyList();
         }
-        return null;
-    }
-
-    private BooleanExpression betweenAge(Integer ageGoe, Integer ageLoe) {
-        return ageGoe(ageGoe).and(ageLoe(ageLoe));
+        JPAQuery<MemberTeamDto> query = compiled.applyTo(queryFactory
+                .select(memberTeamDto())
+                .from(member)
+                .leftJoin(member.team, team));
+        return QueryOrigins.tag(query, "MemberJpaRepository.search").fetch();
     }
-}
\ No newline at end of file
+}
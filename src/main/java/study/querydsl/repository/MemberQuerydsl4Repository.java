@@ -1,20 +1,25 @@
 package study.querydsl.repository;
 
-import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
-import org.springframework.util.StringUtils;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.entity.Member;
+import study.querydsl.repository.support.CompiledCondition;
 import study.querydsl.repository.support.Querydsl4RepositorySupport;
+import study.querydsl.statistics.QueryOrigins;
 
+import java.util.Collections;
 import java.util.List;
 
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.support.MemberConditions.compile;
 
 @Repository
 public class MemberQuerydsl4Repository extends Querydsl4RepositorySupport {
@@ -24,89 +29,66 @@ public class MemberQuerydsl4Repository extends Querydsl4RepositorySupport {
     }
 
     public List<Member> basicSelect() {
-        return select(member)
-                .from(member)
-                .fetch();
+        return QueryOrigins.tag(select(member).from(member), "MemberQuerydsl4Repository.basicSelect").fetch();
     }
 
     public List<Member> basicSelectFrom() {
-        return selectFrom(member).fetch();
+        return QueryOrigins.tag(selectFrom(member), "MemberQuerydsl4Repository.basicSelectFrom").fetch();
     }
 
     public Page<Member> searchPageByApply(MemberSearchCondition condition, Pageable pageable) {
-        JPAQuery<Member> query = selectFrom(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                );
+        CompiledCondition compiled = compile(condition);
+        if (compiled.isContradiction()) {
+            return new PageImpl<>(Collections.emptyList(), pageable, 0);
+        }
+        JPAQuery<Member> query = orderByIdIfUnsorted(compiled.applyTo(selectFrom(member)
+                .leftJoin(member.team, team)), pageable);
 
-        List<Member> content = getQuerydsl().applyPagination(pageable, query)
-                .fetch();
+        getQuerydsl().applyPagination(pageable, query);
+        List<Member> content = QueryOrigins.tag(query, "MemberQuerydsl4Repository.searchPageByApply").fetch();
 
-        Long total = select(member.id.count())
+        JPAQuery<Long> count = compiled.applyTo(select(member.id.count())
                 .from(member)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                ).fetchOne();
+                .leftJoin(member.team, team));
+        Long total = QueryOrigins.tag(count, "MemberQuerydsl4Repository.searchPageByApply.count").fetchOne();
         return PageableExecutionUtils.getPage(content, pageable, () -> total);
     }
 
     public Page<Member> applyPagination(MemberSearchCondition condition, Pageable pageable) {
-
-        return applyPagination(pageable,
-                contentQuery -> contentQuery
+        CompiledCondition compiled = compile(condition);
+        if (compiled.isContradiction()) {
+            return new PageImpl<>(Collections.emptyList(), pageable, 0);
+        }
+        return applyPagination(pageable, "MemberQuerydsl4Repository.applyPagination",
+                contentQuery -> orderByIdIfUnsorted(compiled.applyTo(contentQuery
                         .selectFrom(member)
-                        .leftJoin(member.team, team)
-                        .where(
-                                usernameEq(condition.getUsername()),
-                                teamNameEq(condition.getTeamName()),
-                                ageGoe(condition.getAgeGoe()),
-                                ageLoe(condition.getAgeLoe())
-                        ),
-                countQuery -> countQuery
+                        .leftJoin(member.team, team)), pageable),
+                countQuery -> compiled.applyTo(countQuery
                         .select(member.id)
                         .from(member)
-                        .leftJoin(member.team, team)
-                        .where(
-                                usernameEq(condition.getUsername()),
-                                teamNameEq(condition.getTeamName()),
-                                ageGoe(condition.getAgeGoe()),
-                                ageLoe(condition.getAgeLoe())
-                        )
+                        .leftJoin(member.team, team))
         );
     }
 
-    private BooleanExpression usernameEq(String username) {
-        if (StringUtils.hasText(username)) {
-            return member.username.eq(username);
-        }
-        return null;
-    }
-
-    private BooleanExpression teamNameEq(String teamName) {
-        if (StringUtils.hasText(teamName)) {
-            return member.username.eq(teamName);
-        }
-        return null;
-    }
-
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        if (ageGoe != null) {
-            return member.age.goe(ageGoe);
+    public Slice<Member> applySlicing(MemberSearchCondition condition, Pageable pageable) {
+        CompiledCondition compiled = compile(condition);
+        if (compiled.isContradiction()) {
+            return new SliceImpl<>(Collections.emptyList(), pageable, false);
         }
-        return null;
+        return applySlicing(pageable, "MemberQuerydsl4Repository.applySlicing",
+                contentQuery -> orderByIdIfUnsorted(compiled.applyTo(contentQuery
+                        .selectFrom(member)
+                        .leftJoin(member.team, team)), pageable)
+        );
     }
 
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        if (ageLoe != null) {
-            return member.age.loe(ageLoe);
+    /**
+     * 정렬 조건이 없으면 member.id 순서 (offset paging 의 page 경계가 실행마다 달라지지 않도록)
+     */
+    private static <T> JPAQuery<T> orderByIdIfUnsorted(JPAQuery<T> query, Pageable pageable) {
+        if (pageable.getSort().isUnsorted()) {
+            query.orderBy(member.id.asc());
         }
-        return null;
+        return query;
     }
 }
@@ -2,10 +2,14 @@ package study.querydsl.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberUsernameDto;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * SpringDataJpa extends 사용자 정의 인터페이스
@@ -14,4 +18,32 @@ public interface MemberRepositoryCustom {
     List<MemberTeamDto> search(MemberSearchCondition condition);
 
     Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable);
+
+    /**
+     * searchPage() 와 같은 조건/정렬이지만 전체 건수 대신 다음 page 존재 여부만 (count 조회 없음)
+     */
+    Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable);
+
+    /**
+     * searchPage() content 를 cursor 로 조회; transaction 안에서 소비 후 close
+     */
+    Stream<MemberTeamDto> searchPageStream(MemberSearchCondition condition, Pageable pageable);
+
+    long searchCount(MemberSearchCondition condition);
+
+    /**
+     * 대용량 조회용; JDBC ResultSet 에서 바로 column 배열로 채운다.
+     */
+    MemberTeamColumns searchColumns(MemberSearchCondition condition);
+
+    /**
+     * 자동완성용; username 은 대소문자 무시 부분 일치, in-memory 색인으로 후보 member_id 를 찾아 조회 (member_id 순서, 최대 limit 건)
+     */
+    List<MemberTeamDto> searchByUsernameIndex(MemberSearchCondition condition, int limit);
+
+    /**
+     * 자동완성용; username 을 (대소문자 무시) 포함하는 member_id, username (member_id 순서, 최대 limit 건)<br/>
+     * : 색인이 구성되어 있으면 DB 조회 없이 색인에서 (commit 된 상태 기준)
+     */
+    List<MemberUsernameDto> suggestUsernames(String username, int limit);
 }
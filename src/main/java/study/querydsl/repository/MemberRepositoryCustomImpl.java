@@ -1,24 +1,44 @@
 package study.querydsl.repository;
 
-import com.querydsl.core.types.Predicate;
-import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import study.querydsl.cache.ResultCache;
+import study.querydsl.cache.RequestCoalescer;
+import study.querydsl.cache.ResultCaches;
+import study.querydsl.cache.SearchKeys;
+import study.querydsl.change.TableVersions;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
 import study.querydsl.dto.MemberTeamDto;
-import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.dto.MemberUsernameDto;
+import study.querydsl.dto.QMemberUsernameDto;
+import study.querydsl.dto.UsernameMatch;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.support.CompiledCondition;
+import study.querydsl.search.UsernameIndex;
+import study.querydsl.sql.WindowFunctionSupport;
+import study.querydsl.statistics.QueryOrigins;
 
-import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
-import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.support.MemberConditions.compile;
+import static study.querydsl.repository.support.MemberProjections.memberTeamDto;
 
 /**
  * 사용자 정의 인터페이스 구현체 implements 사용자 정의 인터페이스
@@ -34,31 +54,42 @@ import static study.querydsl.entity.QTeam.team;
 @Repository
 @RequiredArgsConstructor
 public class MemberRepositoryCustomImpl implements MemberRepositoryCustom {
-    private final EntityManager em;
+    private static final int STREAM_FETCH_SIZE = 1000;
+    private static final int IN_CHUNK_SIZE = 1000;
+
     private final JPAQueryFactory queryFactory;
+    private final ResultCaches resultCaches;
+    private final RequestCoalescer coalescer;
+    private final UsernameIndex usernameIndex;
+    private final MemberSqlRepository memberSqlRepository;
+    private final WindowFunctionSupport windowFunctions;
+    private final MeterRegistry meterRegistry;
 
     /**
      * whereParam 장점<br/>
-     * 1.projection 이 바뀌더라도 where 조건 methods 재사용하여 조립이 가능
+     * 1.projection 이 바뀌더라도 where 조건 methods 재사용하여 조립이 가능<br/>
+     * : 같은 조건 반복 조회(dashboard polling) 는 result cache (member-search) 에서 반환<br/>
+     * : cache 를 거치지 않는 경우에도 동시에 들어온 같은 조건은 1번만 조회 (coalescing)<br/>
+     * : 결과가 없는 조건(ageGoe &gt; ageLoe) 은 DB 조회 없이 빈 결과
      */
     @Override
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
+        if (compile(condition).isContradiction()) {
+            return Collections.emptyList();
+        }
+        ResultCache<List<MemberTeamDto>> cache = resultCaches.cache("member-search", TableVersions.MEMBER, TableVersions.TEAM);
+        String key = SearchKeys.of("search", condition);
+        return cache.get(key, () -> coalescer.execute("member-search", key,
+                () -> Collections.unmodifiableList(searchContent(condition)),
+                TableVersions.MEMBER, TableVersions.TEAM));
+    }
+
+    private List<MemberTeamDto> searchContent(MemberSearchCondition condition) {
+        CompiledCondition compiled = compile(condition);
+        JPAQuery<MemberTeamDto> query = compiled.applyTo(compiled.joinTeam(queryFactory
+                .select(memberTeamDto())
+                .from(member)));
+        return QueryOrigins.tag(query, "MemberRepositoryCustomImpl.search").fetch();
     }
 
     @Override
@@ -74,77 +105,196 @@ public class MemberRepositoryCustomImpl implements MemberRepositoryCustom {
          * : 페이지 시작이면서 컨텐츠 사이즈가 페이지 사이즈보다 작을 때<br/>
          * : 마지막 페이지 일 때 (offset + 컨텐츠 사이즈를 더해서 전체 사이즈 구함)<br/>
          */
-        return PageableExecutionUtils.getPage(
+        if (compile(condition).isContradiction()) {
+            return new PageImpl<>(Collections.emptyList(), pageable, 0);
+        }
+        return coalescer.execute("member-search-page", SearchKeys.of("searchPage", condition, pageable),
+                () -> searchPageOnce(condition, pageable),
+                TableVersions.MEMBER, TableVersions.TEAM);
+    }
+
+    /**
+     * window function 을 쓸 수 있으면 content + 전체 건수를 1번에 조회 (count(*) over ())<br/>
+     * : 못 쓰는 DB 이면 content + count query 로 대체 (가능 여부는 {@link WindowFunctionSupport} 가 transaction 밖에서 미리 확인)<br/>
+     * : 실행 중 SQL 오류는 그대로 던진다. (실패한 SQL 이 transaction 을 abort 시키는 DB 에서는 같은 transaction 으로 대체 조회할 수 없음)<br/>
+     * : member.search.page{strategy=window|count} 에 소요시간 기록
+     */
+    private Page<MemberTeamDto> searchPageOnce(MemberSearchCondition condition, Pageable pageable) {
+        if (windowFunctions.isAvailable()) {
+            return pageTimer("window").record(() -> memberSqlRepository.searchPageWithWindowCount(condition, pageable));
+        }
+        return pageTimer("count").record(() -> PageableExecutionUtils.getPage(
                 searchPageContent(condition, pageable),
                 pageable,
-                searchPageTotal(condition)::fetchOne);
+                QueryOrigins.tag(searchPageTotal(condition), "MemberRepositoryCustomImpl.searchPage.count")::fetchOne));
+    }
+
+    private Timer pageTimer(String strategy) {
+        return Timer.builder("member.search.page")
+                .tag("strategy", strategy)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 무한 scroll 용; page size + 1 건을 조회해서 초과분이 있으면 hasNext (count query 없음)
+     */
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        if (compile(condition).isContradiction()) {
+            return new SliceImpl<>(Collections.emptyList(), pageable, false);
+        }
+        return coalescer.execute("member-search-slice", SearchKeys.of("searchSlice", condition, pageable),
+                () -> searchSliceOnce(condition, pageable),
+                TableVersions.MEMBER, TableVersions.TEAM);
+    }
+
+    /**
+     * searchPage() content query 에서 limit 만 page size + 1 (다음 page 존재 여부)
+     */
+    private Slice<MemberTeamDto> searchSliceOnce(MemberSearchCondition condition, Pageable pageable) {
+        JPAQuery<MemberTeamDto> query = searchPageContentQuery(condition, pageable)
+                .limit(pageable.getPageSize() + 1L);
+        List<MemberTeamDto> content = QueryOrigins.tag(query, "MemberRepositoryCustomImpl.searchSlice").fetch();
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, pageable.getPageSize()));
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    /**
+     * searchPage() content 를 cursor(ScrollableResults) 로 한 row 씩 흘려보낸다.<br/>
+     * : stream 은 transaction 안에서 소비하고 close 해야 한다.
+     */
+    @Override
+    public Stream<MemberTeamDto> searchPageStream(MemberSearchCondition condition, Pageable pageable) {
+        if (compile(condition).isContradiction()) {
+            return Stream.empty();
+        }
+        JPAQuery<MemberTeamDto> query = searchPageContentQuery(condition, pageable)
+                .setHint(QueryHints.FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(QueryHints.READ_ONLY, true);
+        return QueryOrigins.tag(query, "MemberRepositoryCustomImpl.searchPageStream").stream();
+    }
+
+    @Override
+    public long searchCount(MemberSearchCondition condition) {
+        if (compile(condition).isContradiction()) {
+            return 0;
+        }
+        Long count = QueryOrigins.tag(searchPageTotal(condition), "MemberRepositoryCustomImpl.searchPage.count").fetchOne();
+        return count == null ? 0 : count;
     }
 
     private List<MemberTeamDto> searchPageContent(MemberSearchCondition condition, Pageable pageable) {
-        return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
+        return QueryOrigins.tag(searchPageContentQuery(condition, pageable), "MemberRepositoryCustomImpl.searchPage").fetch();
+    }
+
+    private JPAQuery<MemberTeamDto> searchPageContentQuery(MemberSearchCondition condition, Pageable pageable) {
+        CompiledCondition compiled = compile(condition);
+        return compiled.applyTo(compiled.joinTeam(queryFactory
+                .select(memberTeamDto())
+                .from(member)))
                 .orderBy(member.id.asc())
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
+                .limit(pageable.getPageSize());
     }
 
-//    private Long searchPageTotal(MemberSearchCondition condition) {
-    private JPAQuery<Long> searchPageTotal(MemberSearchCondition condition) {
-        return queryFactory
-                .select(member.id.count())
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe()));
+    /**
+     * search() 와 같은 조건, member_id 순서<br/>
+     * : JPA 를 거치지 않고 ResultSet 을 {@link MemberTeamColumns.Builder} 에 바로 채운다. (row 마다 DTO, Object[] 생성 없음)<br/>
+     * : 조회는 {@link MemberSqlRepository#searchColumns} (같은 {@link CompiledCondition} 규칙, 같은 transaction / connection)
+     */
+    @Override
+    public MemberTeamColumns searchColumns(MemberSearchCondition condition) {
+        return memberSqlRepository.searchColumns(condition);
     }
 
     /**
-     * {@link Predicate} vs {@link BooleanExpression}<br/>
-     * {@link BooleanExpression} 권장<br/>
-     * : composition 가능
+     * username 후보는 {@link UsernameIndex} 에서, 나머지 조건은 DB 에서<br/>
+     * : username 외 조건이 없으면 색인에서 앞의 limit 개만 꺼내 1번 조회<br/>
+     * : 있으면 색인에서 후보 member_id 를 IN_CHUNK_SIZE 개씩 꺼내 limit 이 찰 때까지 조회 (후보 전체를 한 번에 꺼내지 않음)<br/>
+     * : 색인은 commit 된 상태 기준이므로 username 조건도 같이 걸어서 DB 에서 다시 확인<br/>
+     * : 색인이 아직 구성 전이면 username_lower like 조회로 대체
      */
-    private BooleanExpression usernameEq(String username) {
-        if (hasText(username)) {
-            return member.username.eq(username);
+    @Override
+    public List<MemberTeamDto> searchByUsernameIndex(MemberSearchCondition condition, int limit) {
+        MemberSearchCondition contains = MemberSearchCondition.builder()
+                .username(condition.getUsername())
+                .usernameMatch(UsernameMatch.CONTAINS)
+                .usernameIgnoreCase(true)
+                .teamName(condition.getTeamName())
+                .ageGoe(condition.getAgeGoe())
+                .ageLoe(condition.getAgeLoe())
+                .build();
+        CompiledCondition compiled = compile(contains);
+        if (compiled.isContradiction() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        if (!hasText(condition.getUsername()) || !usernameIndex.isReady()) {
+            return QueryOrigins.tag(searchByUsernameIndexQuery(compiled), "MemberRepositoryCustomImpl.searchByUsernameIndex")
+                    .limit(limit)
+                    .fetch();
         }
-        return null;
-    }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        if (hasText(teamName)) {
-            return team.name.eq(teamName);
+        boolean usernameOnly = !hasText(condition.getTeamName()) && condition.getAgeGoe() == null && condition.getAgeLoe() == null;
+        int chunkSize = usernameOnly ? limit : IN_CHUNK_SIZE;
+        List<MemberTeamDto> result = new ArrayList<>();
+        long afterId = Long.MIN_VALUE;
+        while (result.size() < limit) {
+            List<Long> chunk = usernameIndex.search(condition.getUsername(), afterId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            result.addAll(QueryOrigins.tag(searchByUsernameIndexQuery(compiled), "MemberRepositoryCustomImpl.searchByUsernameIndex")
+                    .where(member.id.in(chunk))
+                    .limit(limit - result.size())
+                    .fetch());
+            if (usernameOnly || chunk.size() < chunkSize) {
+                break;
+            }
+            afterId = chunk.get(chunk.size() - 1);
         }
-        return null;
+        return result;
     }
 
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        if (ageGoe != null) {
-            return member.age.goe(ageGoe);
+    /**
+     * 색인이 구성 전이면 username_lower like 조회로 대체
+     */
+    @Override
+    public List<MemberUsernameDto> suggestUsernames(String username, int limit) {
+        if (!hasText(username) || limit <= 0) {
+            return Collections.emptyList();
+        }
+        if (usernameIndex.isReady()) {
+            return usernameIndex.suggest(username, limit);
         }
-        return null;
+        JPAQuery<MemberUsernameDto> query = queryFactory
+                .select(new QMemberUsernameDto(member.id, member.username))
+                .from(member)
+                .where(member.usernameLower.contains(Member.lower(username)))
+                .orderBy(member.id.asc())
+                .limit(limit);
+        return QueryOrigins.tag(query, "MemberRepositoryCustomImpl.suggestUsernames").fetch();
+    }
+
+    private JPAQuery<MemberTeamDto> searchByUsernameIndexQuery(CompiledCondition compiled) {
+        return compiled.applyTo(compiled.joinTeam(queryFactory
+                .select(memberTeamDto())
+                .from(member)))
+                .orderBy(member.id.asc());
     }
 
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        if (ageLoe != null) {
-            return member.age.loe(ageLoe);
+//    private Long searchPageTotal(MemberSearchCondition condition) {
+    private JPAQuery<Long> searchPageTotal(MemberSearchCondition condition) {
+        CompiledCondition compiled = compile(condition);
+        JPAQuery<Long> query = queryFactory
+                .select(member.id.count())
+                .from(member);
+        /* left join 은 row 수를 바꾸지 않으므로 team 조건이 없으면 생략 */
+        if (compiled.requiresTeamJoin()) {
+            compiled.joinTeam(query);
         }
-        return null;
+        return compiled.applyTo(query);
     }
 }
@@ -0,0 +1,134 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.sql.SQLExpressions;
+import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.SQLQueryFactory;
+import com.querydsl.sql.WindowFunction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.support.CompiledCondition;
+import study.querydsl.repository.support.MemberConditions.Columns;
+import study.querydsl.statistics.QueryOrigins;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static study.querydsl.repository.support.MemberConditions.compile;
+import static study.querydsl.sql.SMember.member;
+import static study.querydsl.sql.STeam.team;
+
+/**
+ * querydsl-sql 로 작성한 member 조회 (JPQL 로 표현할 수 없는 window function 등)<br/>
+ * : JPA repository 와 같은 transaction / connection 에서 실행되고, 실행 전에 JPA 변경을 flush 한다.
+ * ({@link study.querydsl.sql.JpaSyncConnectionProvider})<br/>
+ * : querydsl-sql 은 transaction 에 묶인 connection 만 사용하므로, transaction 밖에서 호출되면 read-only transaction 을 연다.<br/>
+ * : query 는 {@link QueryOrigins} 로 태깅하여 실행 통계 ({@link study.querydsl.statistics.SqlQueryStatistics}) 에 origin 별로 남긴다.<br/>
+ * : where 조건은 JPA repository 와 같은 {@link CompiledCondition} 을 {@link Columns#SQL} 에 적용해서 만든다.
+ */
+@Repository
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class MemberSqlRepository {
+    private final SQLQueryFactory sqlQueryFactory;
+
+    /**
+     * searchPage() 와 같은 조건, 정렬(member_id), 결과<br/>
+     * : content 와 전체 건수를 count(*) over() 로 1번에 조회 (count query 생략)<br/>
+     * : 범위를 벗어난 page (content 없음) 만 전체 건수를 따로 조회<br/>
+     * <p>
+     * select m.member_id, m.username, m.age, t.id, t.name, count(*) over ()
+     * from member m
+     * left join team t on m.team_id = t.id (team 조건이 있으면 inner join)
+     * where ...
+     * order by m.member_id asc
+     * limit ? offset ?
+     */
+    public Page<MemberTeamDto> searchPageWithWindowCount(MemberSearchCondition condition, Pageable pageable) {
+        CompiledCondition compiled = compile(condition);
+        if (compiled.isContradiction()) {
+            return new PageImpl<>(Collections.emptyList(), pageable, 0);
+        }
+        WindowFunction<Long> total = SQLExpressions.count().over();
+
+        SQLQuery<Tuple> query = compiled.applyTo(compiled.joinTeam(sqlQueryFactory
+                        .select(member.memberId, member.username, member.age, team.id, team.name, total)
+                        .from(member), member, team), Columns.SQL)
+                .orderBy(member.memberId.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize());
+        List<Tuple> rows = QueryOrigins.tag(query, "MemberSqlRepository.searchPageWithWindowCount").fetch();
+
+        List<MemberTeamDto> content = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            content.add(new MemberTeamDto(
+                    row.get(member.memberId),
+                    row.get(member.username),
+                    row.get(member.age),
+                    row.get(team.id),
+                    row.get(team.name)));
+        }
+        if (!rows.isEmpty()) {
+            return new PageImpl<>(content, pageable, rows.get(0).get(total));
+        }
+        return new PageImpl<>(content, pageable, pageable.getOffset() == 0 ? 0 : count(compiled));
+    }
+
+    /**
+     * search() 와 같은 조건, member_id 순서<br/>
+     * : JPA 를 거치지 않고 ResultSet 을 {@link MemberTeamColumns.Builder} 에 바로 채운다. (row 마다 DTO, Object[] 생성 없음)<br/>
+     * : 아직 flush 되지 않은 JPA 변경은 connection 을 받을 때 flush 된다. ({@link study.querydsl.sql.JpaSyncConnectionProvider})
+     * <p>
+     * select m.member_id, m.username, m.age, t.id, t.name
+     * from member m
+     * left join team t on m.team_id = t.id (team 조건이 있으면 inner join)
+     * where ...
+     * order by m.member_id asc
+     */
+    public MemberTeamColumns searchColumns(MemberSearchCondition condition) {
+        CompiledCondition compiled = compile(condition);
+        MemberTeamColumns.Builder builder = MemberTeamColumns.builder();
+        if (compiled.isContradiction()) {
+            return builder.build();
+        }
+        SQLQuery<Tuple> query = compiled.applyTo(compiled.joinTeam(sqlQueryFactory
+                        .select(member.memberId, member.username, member.age, team.id, team.name)
+                        .from(member), member, team), Columns.SQL)
+                .orderBy(member.memberId.asc());
+        try (ResultSet rs = QueryOrigins.tag(query, "MemberSqlRepository.searchColumns").getResults()) {
+            while (rs.next()) {
+                long teamId = rs.getLong(4);
+                boolean noTeam = rs.wasNull();
+                builder.add(rs.getLong(1),
+                        rs.getString(2),
+                        rs.getInt(3),
+                        noTeam ? null : teamId,
+                        rs.getString(5));
+            }
+        } catch (SQLException e) {
+            throw sqlQueryFactory.getConfiguration().translate(e);
+        }
+        return builder.build();
+    }
+
+    private long count(CompiledCondition compiled) {
+        SQLQuery<Long> query = sqlQueryFactory
+                .select(member.memberId.count())
+                .from(member);
+        if (compiled.requiresTeamJoin()) {
+            compiled.joinTeam(query, member, team);
+        }
+        Long count = QueryOrigins.tag(compiled.applyTo(query, Columns.SQL), "MemberSqlRepository.searchPageWithWindowCount.count").fetchOne();
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,109 @@
+package study.querydsl.repository.study;
+
+import org.springframework.stereotype.Repository;
+import study.querydsl.dto.MemberAgeDeviationDto;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * "집계값과 비교" 하는 subquery (QuerydslBasicTest.subQueryTest, subQueryInTest, selectSubQueryTest) 를 native SQL 로 바꿔 쓴 것<br/>
+ * : where age = (select max(age) ...) 처럼 subquery 를 쓰면 DB 에 따라 row 마다 subquery 를 다시 실행할 수 있다.<br/>
+ * : {@link Strategy#DERIVED_JOIN} 집계를 from 절에서 1번만 계산한 뒤 join (inline view)<br/>
+ * : {@link Strategy#WINDOW} 집계를 window function (max/avg over) 으로 같은 row 에 붙인 뒤 filter<br/>
+ * : JPQL 은 from 절 subquery, window function 을 지원하지 않으므로 native query (같은 EntityManager, transaction)
+ */
+@Repository
+public class AggregateJoinRepository {
+
+    public enum Strategy {
+        DERIVED_JOIN, WINDOW
+    }
+
+    private static final String MEMBER_COLUMNS = "member_id, age, team_id, username, username_lower";
+
+    private final EntityManager em;
+
+    public AggregateJoinRepository(EntityManager em) {
+        this.em = em;
+    }
+
+    /**
+     * 나이가 가장 많은 회원<br/>
+     * : subquery; where m.age = (select max(s.age) from member s)
+     */
+    public List<Member> findByMaxAge(Strategy strategy) {
+        String sql = strategy == Strategy.WINDOW
+                ? "select " + MEMBER_COLUMNS + " from (" +
+                "select m.*, max(m.age) over () as max_age from member m" +
+                ") x where x.age = x.max_age order by x.member_id"
+                : "select " + columns("m") + " from member m " +
+                "join (select max(s.age) as max_age from member s) a on m.age = a.max_age " +
+                "order by m.member_id";
+        return members(sql);
+    }
+
+    /**
+     * 나이가 평균 이상인 회원<br/>
+     * : subquery; where m.age &gt;= (select avg(s.age) from member s)
+     */
+    public List<Member> findByAgeGoeAvg(Strategy strategy) {
+        String sql = strategy == Strategy.WINDOW
+                ? "select " + MEMBER_COLUMNS + " from (" +
+                "select m.*, avg(1.0 * m.age) over () as avg_age from member m" +
+                ") x where x.age >= x.avg_age order by x.member_id"
+                : "select " + columns("m") + " from member m " +
+                "join (select avg(1.0 * s.age) as avg_age from member s) a on m.age >= a.avg_age " +
+                "order by m.member_id";
+        return members(sql);
+    }
+
+    /**
+     * team 별 나이가 가장 많은 회원 (team 이 없는 회원 제외)<br/>
+     * : correlated subquery; where m.age = (select max(s.age) from member s where s.team_id = m.team_id)<br/>
+     * : row 마다 바깥 row 에 따라 결과가 달라지므로 subquery 반복 실행 비용이 가장 큰 형태
+     */
+    public List<Member> findOldestPerTeam(Strategy strategy) {
+        String sql = strategy == Strategy.WINDOW
+                ? "select " + MEMBER_COLUMNS + " from (" +
+                "select m.*, max(m.age) over (partition by m.team_id) as max_age from member m where m.team_id is not null" +
+                ") x where x.age = x.max_age order by x.member_id"
+                : "select " + columns("m") + " from member m " +
+                "join (select s.team_id, max(s.age) as max_age from member s where s.team_id is not null group by s.team_id) a " +
+                "on m.team_id = a.team_id and m.age = a.max_age " +
+                "order by m.member_id";
+        return members(sql);
+    }
+
+    /**
+     * 회원별 (전체 평균 나이 - 나이)<br/>
+     * : select 절 subquery; select m.username, (select avg(s.age) from member s) - m.age
+     */
+    public List<MemberAgeDeviationDto> findAgeDeviation(Strategy strategy) {
+        String sql = strategy == Strategy.WINDOW
+                ? "select m.username, m.age, avg(1.0 * m.age) over () - m.age from member m order by m.member_id"
+                : "select m.username, m.age, a.avg_age - m.age from member m " +
+                "cross join (select avg(1.0 * s.age) as avg_age from member s) a " +
+                "order by m.member_id";
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em.createNativeQuery(sql).getResultList();
+        List<MemberAgeDeviationDto> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(new MemberAgeDeviationDto((String) row[0],
+                    ((Number) row[1]).intValue(),
+                    ((Number) row[2]).doubleValue()));
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Member> members(String sql) {
+        return em.createNativeQuery(sql, Member.class).getResultList();
+    }
+
+    private static String columns(String alias) {
+        return alias + "." + MEMBER_COLUMNS.replace(", ", ", " + alias + ".");
+    }
+}
@@ -2,6 +2,9 @@ package study.querydsl.repository.study;
 
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.stereotype.Repository;
+import study.querydsl.change.ChangeTracker;
+import study.querydsl.entity.Member;
+import study.querydsl.statistics.QueryOrigins;
 
 import javax.persistence.EntityManager;
 
@@ -11,17 +14,23 @@ import static study.querydsl.entity.QMember.member;
 public class BulkUpdateRepository {
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final ChangeTracker changeTracker;
 
-    public BulkUpdateRepository(EntityManager em) {
+    public BulkUpdateRepository(EntityManager em, ChangeTracker changeTracker) {
         this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
+        this.changeTracker = changeTracker;
     }
 
     public long memberBulkUpdate(String changeName, int ageCond) {
-        long updateCount = queryFactory.update(member)
-                .set(member.username, changeName)
-                .where(member.age.lt(ageCond))
-                .execute();
+        long updateCount = QueryOrigins.tag(queryFactory.update(member)
+                        .set(member.username, changeName)
+                        .set(member.usernameLower, Member.lower(changeName))//bulk update 는 @PreUpdate 를 거치지 않음
+                        .where(member.age.lt(ageCond)),
+                "BulkUpdateRepository.memberBulkUpdate").execute();
+
+        /* bulk 연산은 hibernate event 를 거치지 않으므로 직접 기록 (commit 후 반영) */
+        changeTracker.recordBulk(Member.class);
 
         /* bulk update 시 DBMS 와 PersistenceContext 가 맞지 않으므로 초기화.
         application level Repeatable read */
@@ -32,9 +41,12 @@ public class BulkUpdateRepository {
     }
 
     public long bulkAddAge(int addAge) {
-        long updateCount = queryFactory.update(member)
-                .set(member.age, member.age.add(addAge))
-                .execute();
+        long updateCount = QueryOrigins.tag(queryFactory.update(member)
+                        .set(member.age, member.age.add(addAge)),
+                "BulkUpdateRepository.bulkAddAge").execute();
+
+        /* bulk 연산은 hibernate event 를 거치지 않으므로 직접 기록 (commit 후 반영) */
+        changeTracker.recordBulk(Member.class);
 
         /* bulk update 시 DBMS 와 PersistenceContext 가 맞지 않으므로 초기화.
         application level Repeatable read */
@@ -45,9 +57,12 @@ public class BulkUpdateRepository {
     }
 
     public long bulkDelete(int deleteAgeCond) {
-        long updateCount = queryFactory.delete(member)
-                .where(member.age.lt(deleteAgeCond))
-                .execute();
+        long updateCount = QueryOrigins.tag(queryFactory.delete(member)
+                        .where(member.age.lt(deleteAgeCond)),
+                "BulkUpdateRepository.bulkDelete").execute();
+
+        /* bulk 연산은 hibernate event 를 거치지 않으므로 직접 기록 (commit 후 반영) */
+        changeTracker.recordBulk(Member.class);
 
         /* bulk update 시 DBMS 와 PersistenceContext 가 맞지 않으므로 초기화.
         application level Repeatable read */
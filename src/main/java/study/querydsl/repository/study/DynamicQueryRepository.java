@@ -2,12 +2,13 @@ package study.querydsl.repository.study;
 
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.stereotype.Repository;
 import study.querydsl.dto.MemberDto;
-import study.querydsl.dto.QMemberDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
+import study.querydsl.repository.support.MemberProjections;
 
 import javax.persistence.EntityManager;
 import java.util.List;
@@ -53,7 +54,7 @@ public class DynamicQueryRepository {
 
     public List<MemberDto> searchMemberWhereParamReusable(String usernameCond, Integer ageCond) {
         return queryFactory
-                .select(new QMemberDto(QMember.member.username, QMember.member.age))
+                .select(MemberProjections.MEMBER_DTO)
                 .from(QMember.member)
                 .where(allEq(usernameCond, ageCond))
                 .fetch();
@@ -77,8 +78,11 @@ public class DynamicQueryRepository {
         return null;
     }
 
+    /**
+     * usernameEq(usernameCond).and(...) 는 usernameCond 가 null 이면 NPE<br/>
+     * : {@link Expressions#allOf} 는 null 을 건너뛰고 조합 (모두 null 이면 null -> where 에서 무시)
+     */
     public BooleanExpression allEq(String usernameCond, Integer ageCond) {
-        return usernameEq(usernameCond)
-                .and(ageEq(ageCond));
+        return Expressions.allOf(usernameEq(usernameCond), ageEq(ageCond));
     }
 }
\ No newline at end of file
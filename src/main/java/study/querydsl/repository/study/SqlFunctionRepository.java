@@ -34,13 +34,19 @@ public class SqlFunctionRepository {
         return result;
     }
 
+    /**
+     * where username = lower(username)<br/>
+     * : column 에 함수를 적용하면 index 를 못 타므로, 저장해 둔 member.username_lower column 과 비교<br/>
+     * : 대소문자 무시 검색은 {@link study.querydsl.dto.MemberSearchCondition#isUsernameIgnoreCase()} 사용
+     */
     public List<String> sqlFunctionWhereLower() {
         List<String> result = queryFactory.select(member.username)
                 .from(member)
 //                .where(member.username.eq(Expressions.stringTemplate(
 //                        "function('lower', {0})",
 //                        member.username)))
-                .where(member.username.eq(member.username.lower()))
+//                .where(member.username.eq(member.username.lower()))
+                .where(member.username.eq(member.usernameLower))
                 .fetch();
         return result;
     }
@@ -0,0 +1,178 @@
+package study.querydsl.repository.support;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * DataLoader 방식 batch 조회<br/>
+ * : {@link #load(Object)} 는 key 만 모아두고 {@link Deferred} 를 반환<br/>
+ * : 모아둔 key 는 {@link Deferred#get()} (또는 {@link #dispatch()}) 시점에 batch 함수 1회(IN 절)로 조회 후 나눠준다.<br/>
+ * : 모으는 범위(scope) 는 현재 transaction (영속성 컨텍스트 단위); transaction 이 없으면 현재 thread 에서 dispatch 전까지<br/>
+ * : 같은 key 는 한 번의 dispatch 안에서만 공유한다. dispatch 가 끝난 key 를 다시 load 하면 다시 조회
+ * (그 사이 같은 transaction 에서 변경했을 수 있으므로 결과를 transaction 동안 들고 있지 않는다)
+ *
+ * @param <K> 조회 key (id, username ...)
+ * @param <V> key 1개의 결과
+ */
+public class BatchLoader<K, V> {
+    private final Function<List<K>, Map<K, V>> batchFunction;
+    private final V missing;
+    private final int maxBatchSize;
+    private final ThreadLocal<Batch<K, V>> local = new ThreadLocal<>();
+
+    /**
+     * @param batchFunction key 목록 -> key 별 결과 (결과가 없는 key 는 빠져도 됨)
+     * @param missing       결과가 없는 key 의 값
+     * @param maxBatchSize  한번에 조회할 최대 key 수 (IN 절 크기)
+     */
+    public BatchLoader(Function<List<K>, Map<K, V>> batchFunction, V missing, int maxBatchSize) {
+        this.batchFunction = batchFunction;
+        this.missing = missing;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public Deferred<V> load(K key) {
+        return batch().pending.computeIfAbsent(key, k -> new Deferred<>(this));
+    }
+
+    /**
+     * keys 를 한번에 조회 (이미 모아둔 key 도 함께 dispatch)
+     */
+    public Map<K, V> loadMany(Collection<K> keys) {
+        Map<K, Deferred<V>> deferred = new LinkedHashMap<>();
+        for (K key : keys) {
+            deferred.put(key, load(key));
+        }
+        dispatch();
+        Map<K, V> result = new LinkedHashMap<>();
+        deferred.forEach((key, value) -> result.put(key, value.get()));
+        return result;
+    }
+
+    /**
+     * 모아둔 key 를 maxBatchSize 단위로 조회<br/>
+     * : batch 함수가 실패하면 이번에 모은 key 의 Deferred 는 모두 같은 예외로 끝난다. (get() 시 throw)
+     */
+    public void dispatch() {
+        Batch<K, V> batch = batch();
+        try {
+            if (batch.pending.isEmpty()) {
+                return;
+            }
+            Map<K, Deferred<V>> pending = new LinkedHashMap<>(batch.pending);
+            batch.pending.clear();
+            try {
+                load(pending);
+            } catch (RuntimeException e) {
+                for (Deferred<V> deferred : pending.values()) {
+                    if (!deferred.isResolved()) {
+                        deferred.fail(e);
+                    }
+                }
+                throw e;
+            }
+        } finally {
+            if (!batch.transactional) {
+                local.remove();
+            }
+        }
+    }
+
+    private void load(Map<K, Deferred<V>> pending) {
+        List<K> keys = new ArrayList<>(pending.keySet());
+        for (int from = 0; from < keys.size(); from += maxBatchSize) {
+            List<K> chunk = keys.subList(from, Math.min(from + maxBatchSize, keys.size()));
+            Map<K, V> loaded = batchFunction.apply(chunk);
+            for (K key : chunk) {
+                pending.get(key).resolve(loaded.getOrDefault(key, missing));
+            }
+        }
+    }
+
+    private Batch<K, V> batch() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            @SuppressWarnings("unchecked")
+            Batch<K, V> batch = (Batch<K, V>) TransactionSynchronizationManager.getResource(this);
+            if (batch == null) {
+                batch = new Batch<>(true);
+                TransactionSynchronizationManager.bindResource(this, batch);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(BatchLoader.this);
+                    }
+                });
+            }
+            return batch;
+        }
+        Batch<K, V> batch = local.get();
+        if (batch == null) {
+            batch = new Batch<>(false);
+            local.set(batch);
+        }
+        return batch;
+    }
+
+    private static class Batch<K, V> {
+        private final boolean transactional;
+        private final Map<K, Deferred<V>> pending = new LinkedHashMap<>();
+
+        private Batch(boolean transactional) {
+            this.transactional = transactional;
+        }
+    }
+
+    /**
+     * 아직 조회되지 않은 결과; {@link #get()} 시 같은 scope 에 모인 key 를 함께 조회한다.
+     */
+    public static final class Deferred<V> {
+        private final BatchLoader<?, V> loader;
+        private boolean resolved;
+        private V value;
+        private RuntimeException failure;
+
+        private Deferred(BatchLoader<?, V> loader) {
+            this.loader = loader;
+        }
+
+        /**
+         * @throws IllegalStateException 다른 scope (끝난 transaction, 다른 thread) 에서 load 되어 조회할 수 없는 경우
+         */
+        public V get() {
+            if (!resolved) {
+                loader.dispatch();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            if (!resolved) {
+                throw new IllegalStateException("deferred value was not dispatched in its batch scope");
+            }
+            return value;
+        }
+
+        /**
+         * 조회가 끝났으면 (실패 포함) true
+         */
+        public boolean isResolved() {
+            return resolved;
+        }
+
+        private void resolve(V value) {
+            this.value = value;
+            this.resolved = true;
+        }
+
+        private void fail(RuntimeException failure) {
+            this.failure = failure;
+            this.resolved = true;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionException;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Visitor;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link DtoProjections#bean(Class, Expression[])}, {@link DtoProjections#fields(Class, Expression[])} 결과<br/>
+ * : 기본 생성자 ()Object, setter/field writer (Object, Object)void 형태로 미리 변환되어 있음<br/>
+ * : null 값은 set 하지 않는다. (primitive field 는 기본값 유지)
+ */
+public class BeanProjection<T> extends FactoryExpressionBase<T> {
+    private final MethodHandle instantiator;
+    private final MethodHandle[] writers;
+    private final List<Expression<?>> args;
+
+    BeanProjection(Class<? extends T> type, MethodHandle instantiator, MethodHandle[] writers, Expression<?>... args) {
+        super(type);
+        this.instantiator = instantiator;
+        this.writers = writers;
+        this.args = Collections.unmodifiableList(Arrays.asList(args));
+    }
+
+    @Override
+    public List<Expression<?>> getArgs() {
+        return args;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T newInstance(Object... a) {
+        try {
+            Object bean = (Object) instantiator.invokeExact();
+            for (int i = 0; i < writers.length; i++) {
+                if (a[i] != null) {
+                    writers[i].invokeExact(bean, a[i]);
+                }
+            }
+            return (T) bean;
+        } catch (Throwable e) {
+            throw new ExpressionException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public <R, C> R accept(Visitor<R, C> v, C context) {
+        return v.visit(this, context);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof BeanProjection)) {
+            return false;
+        }
+        BeanProjection<?> other = (BeanProjection<?>) obj;
+        return getType().equals(other.getType()) && args.equals(other.args);
+    }
+}
@@ -0,0 +1,128 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.support.QueryBase;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.sql.SQLQuery;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.support.MemberConditions.Columns;
+import study.querydsl.sql.SMember;
+import study.querydsl.sql.STeam;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.support.MemberConditions.*;
+
+/**
+ * {@link MemberConditions#compile(MemberSearchCondition)} 결과 (immutable)<br/>
+ * : shape 별로 공유하는 where 조건 + 이번 조회의 binding 값
+ */
+public final class CompiledCondition {
+    private final int shape;
+    private final String username;
+    private final String usernameUpper;
+    private final String teamName;
+    private final Integer ageGoe;
+    private final Integer ageLoe;
+    private final boolean contradiction;
+
+    CompiledCondition(int shape, MemberSearchCondition condition, boolean contradiction) {
+        this.shape = shape;
+        this.contradiction = contradiction;
+        if ((shape & USERNAME_BIT) != 0) {
+            this.username = usernameOperand(condition.getUsername(), condition.getUsernameMatch(), condition.isUsernameIgnoreCase());
+            this.usernameUpper = (shape & USERNAME_PREFIX) != 0 ? prefixUpperBound(username) : null;
+        } else {
+            this.username = null;
+            this.usernameUpper = null;
+        }
+        this.teamName = condition.getTeamName();
+        this.ageGoe = condition.getAgeGoe();
+        this.ageLoe = condition.getAgeLoe();
+    }
+
+    /**
+     * where 조건 추가 + parameter binding (JPQL)
+     */
+    public <Q extends QueryBase<Q>> Q applyTo(Q query) {
+        return applyTo(query, Columns.JPA);
+    }
+
+    /**
+     * where 조건 추가 + parameter binding (columns: {@link Columns#JPA} / {@link Columns#SQL})
+     */
+    public <Q extends QueryBase<Q>> Q applyTo(Q query, Columns columns) {
+        query.where(getPredicate(columns));
+        if (contradiction) {
+            return query;
+        }
+        if ((shape & USERNAME_BIT) != 0) {
+            query.set(USERNAME, username);
+        }
+        if ((shape & USERNAME_PREFIX) != 0) {
+            query.set(USERNAME_UPPER, usernameUpper);
+        }
+        if ((shape & TEAM_NAME_EQ) != 0) {
+            query.set(TEAM_NAME, teamName);
+        }
+        if ((shape & AGE_GOE_BIT) != 0) {
+            query.set(AGE_GOE, ageGoe);
+        }
+        if ((shape & AGE_LOE_BIT) != 0) {
+            query.set(AGE_LOE, ageLoe);
+        }
+        return query;
+    }
+
+    /**
+     * member -> team join<br/>
+     * : team 조건이 있으면 inner join (team.name = ? 이 team 없는 member 를 어차피 거르므로 결과는 left join 과 같다)<br/>
+     * -> DB 가 team.name index 로 team 을 먼저 찾고 member.team_id index 로 member 를 join 할 수 있다. (left join 은 member 부터 읽음)
+     */
+    public <Q extends JPQLQuery<?>> Q joinTeam(Q query) {
+        if (requiresTeamJoin()) {
+            query.join(member.team, team);
+        } else {
+            query.leftJoin(member.team, team);
+        }
+        return query;
+    }
+
+    /**
+     * {@link #joinTeam(JPQLQuery)} 의 querydsl-sql 판 (member.team_id = team.team_id)
+     */
+    public <T> SQLQuery<T> joinTeam(SQLQuery<T> query, SMember m, STeam t) {
+        if (requiresTeamJoin()) {
+            query.innerJoin(t).on(m.teamId.eq(t.id));
+        } else {
+            query.leftJoin(t).on(m.teamId.eq(t.id));
+        }
+        return query;
+    }
+
+    /**
+     * team 조건이 없으면 count query 등에서 team join 생략 가능
+     */
+    public boolean requiresTeamJoin() {
+        return (shape & TEAM_NAME_EQ) != 0;
+    }
+
+    /**
+     * 결과가 항상 비어있는 조건 (ageGoe &gt; ageLoe); 조회하지 않고 빈 결과를 반환하면 된다.
+     */
+    public boolean isContradiction() {
+        return contradiction;
+    }
+
+    public boolean isEmpty() {
+        return !contradiction && shape == 0;
+    }
+
+    public Predicate getPredicate() {
+        return getPredicate(Columns.JPA);
+    }
+
+    public Predicate getPredicate(Columns columns) {
+        return contradiction ? ALWAYS_FALSE : columns.predicate(shape);
+    }
+}
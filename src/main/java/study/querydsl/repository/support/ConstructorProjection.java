@@ -0,0 +1,104 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionException;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Visitor;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link DtoProjections#constructor(Class, Expression[])} 결과<br/>
+ * : 생성자 {@link MethodHandle} 은 (Object[])Object 형태로 미리 변환되어 있음<br/>
+ * : {@link #withDictionary(Expression[])} 로 값 종류가 적은 String column 의 중복 인스턴스를 제거할 수 있다.
+ */
+public class ConstructorProjection<T> extends FactoryExpressionBase<T> {
+    private static final int[] NO_COLUMNS = new int[0];
+
+    private final MethodHandle constructor;
+    private final List<Expression<?>> args;
+    private final int[] dictionaryColumns;
+    private final StringDictionary dictionary;
+    /**
+     * dictionary 적용 값을 담는 재사용 배열 (row 마다 배열을 만들지 않음; dictionary 와 같이 조회 1회, 1 thread 범위)
+     */
+    private final Object[] scratch;
+
+    ConstructorProjection(Class<? extends T> type, MethodHandle constructor, Expression<?>... args) {
+        this(type, constructor, Collections.unmodifiableList(Arrays.asList(args)), NO_COLUMNS, null);
+    }
+
+    private ConstructorProjection(Class<? extends T> type, MethodHandle constructor, List<Expression<?>> args,
+                                  int[] dictionaryColumns, StringDictionary dictionary) {
+        super(type);
+        this.constructor = constructor;
+        this.args = args;
+        this.dictionaryColumns = dictionaryColumns;
+        this.dictionary = dictionary;
+        this.scratch = dictionaryColumns.length > 0 ? new Object[args.size()] : null;
+    }
+
+    /**
+     * 새 {@link StringDictionary} 를 가진 projection 을 만든다.<br/>
+     * : dictionary 는 조회 1회 범위이므로 조회마다 호출해서 사용 (MethodHandle 은 공유)
+     */
+    @SafeVarargs
+    public final ConstructorProjection<T> withDictionary(Expression<String>... columns) {
+        int[] indexes = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            indexes[i] = args.indexOf(columns[i]);
+            if (indexes[i] < 0) {
+                throw new IllegalArgumentException(columns[i] + " is not an argument of " + getType().getSimpleName());
+            }
+        }
+        return new ConstructorProjection<>(getType(), constructor, args, indexes, new StringDictionary());
+    }
+
+    public StringDictionary getDictionary() {
+        return dictionary;
+    }
+
+    @Override
+    public List<Expression<?>> getArgs() {
+        return args;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T newInstance(Object... a) {
+        /* 호출한 쪽의 row 배열은 바꾸지 않는다. (dictionary column 이 있을 때만 scratch 에 복사; 생성자 호출 시 spread 되므로 재사용 가능) */
+        Object[] values = a;
+        if (dictionaryColumns.length > 0) {
+            values = scratch;
+            System.arraycopy(a, 0, values, 0, values.length);
+            for (int column : dictionaryColumns) {
+                values[column] = dictionary.intern((String) values[column]);
+            }
+        }
+        try {
+            return (T) (Object) constructor.invokeExact(values);
+        } catch (Throwable e) {
+            throw new ExpressionException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public <R, C> R accept(Visitor<R, C> v, C context) {
+        return v.visit(this, context);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof ConstructorProjection)) {
+            return false;
+        }
+        ConstructorProjection<?> other = (ConstructorProjection<?>) obj;
+        return getType().equals(other.getType()) && args.equals(other.args);
+    }
+}
@@ -0,0 +1,200 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionException;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link com.querydsl.core.types.Projections}, @QueryProjection 대체 projection factory<br/>
+ * : Projections.constructor/bean/fields, QMemberTeamDto 는 row 마다 reflection(Constructor.newInstance, Method.invoke) 호출<br/>
+ * : DtoProjections 는 DTO 구조별 {@link MethodHandle} 을 1회만 만들어 캐시하고, row 마다 invokeExact 만 호출한다.<br/>
+ * <p>
+ * 생성된 projection 은 불변이므로 static 상수로 공유해도 된다.
+ */
+public final class DtoProjections {
+    private static final MethodHandle DEFAULT_IF_NULL;
+    private static final Map<String, MethodHandle> CONSTRUCTORS = new ConcurrentHashMap<>();
+    /**
+     * bean/fields 용 기본 생성자; 인자 0개 constructor() 와 handle 형태가 달라 ((Object[])Object, ()Object) 따로 캐시
+     */
+    private static final Map<Class<?>, MethodHandle> INSTANTIATORS = new ConcurrentHashMap<>();
+    private static final Map<String, MethodHandle[]> WRITERS = new ConcurrentHashMap<>();
+
+    static {
+        try {
+            DEFAULT_IF_NULL = MethodHandles.lookup().findStatic(DtoProjections.class, "defaultIfNull",
+                    MethodType.methodType(Object.class, Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private DtoProjections() {
+    }
+
+    /**
+     * Projections.constructor(), @QueryProjection 대체
+     */
+    public static <T> ConstructorProjection<T> constructor(Class<? extends T> type, Expression<?>... args) {
+        Class<?>[] argTypes = Arrays.stream(args).map(Expression::getType).toArray(Class<?>[]::new);
+        String key = type.getName() + Arrays.toString(argTypes);
+        MethodHandle constructor = CONSTRUCTORS.computeIfAbsent(key, k -> constructorHandle(type, argTypes));
+        return new ConstructorProjection<>(type, constructor, args);
+    }
+
+    /**
+     * Projections.bean() 대체; setter 사용
+     */
+    public static <T> BeanProjection<T> bean(Class<? extends T> type, Expression<?>... args) {
+        return beanProjection(type, true, args);
+    }
+
+    /**
+     * Projections.fields() 대체; field 직접 접근 (setter 불필요)
+     */
+    public static <T> BeanProjection<T> fields(Class<? extends T> type, Expression<?>... args) {
+        return beanProjection(type, false, args);
+    }
+
+    private static <T> BeanProjection<T> beanProjection(Class<? extends T> type, boolean setter, Expression<?>... args) {
+        String[] names = Arrays.stream(args).map(DtoProjections::nameOf).toArray(String[]::new);
+        String key = type.getName() + (setter ? "#setter" : "#field") + Arrays.toString(names);
+        MethodHandle instantiator = INSTANTIATORS.computeIfAbsent(type, DtoProjections::noArgsConstructorHandle);
+        MethodHandle[] writers = WRITERS.computeIfAbsent(key, k -> writerHandles(type, setter, names));
+        return new BeanProjection<>(type, instantiator, writers, args);
+    }
+
+    /**
+     * (Object[])Object 형태로 변환; primitive parameter 의 null 은 기본값으로 대체
+     */
+    private static MethodHandle constructorHandle(Class<?> type, Class<?>[] argTypes) {
+        Constructor<?> constructor = Arrays.stream(type.getDeclaredConstructors())
+                .filter(c -> isAssignable(c.getParameterTypes(), argTypes))
+                .findFirst()
+                .orElseThrow(() -> new ExpressionException("No constructor found for " + type.getName()
+                        + " with parameters " + Arrays.toString(argTypes)));
+        try {
+            MethodHandle handle = lookup(type).unreflectConstructor(constructor);
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (parameterTypes[i].isPrimitive()) {
+                    handle = MethodHandles.filterArguments(handle, i, nullToDefault(parameterTypes[i]));
+                }
+            }
+            return handle
+                    .asType(MethodType.genericMethodType(parameterTypes.length))
+                    .asSpreader(Object[].class, parameterTypes.length);
+        } catch (IllegalAccessException e) {
+            throw new ExpressionException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * ()Object 형태로 변환
+     */
+    private static MethodHandle noArgsConstructorHandle(Class<?> type) {
+        try {
+            return lookup(type)
+                    .findConstructor(type, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExpressionException("No default constructor found for " + type.getName(), e);
+        }
+    }
+
+    /**
+     * (Object, Object)void 형태로 변환
+     */
+    private static MethodHandle[] writerHandles(Class<?> type, boolean setter, String[] names) {
+        MethodType writerType = MethodType.methodType(void.class, Object.class, Object.class);
+        MethodHandle[] writers = new MethodHandle[names.length];
+        try {
+            MethodHandles.Lookup lookup = lookup(type);
+            for (int i = 0; i < names.length; i++) {
+                if (setter) {
+                    Method method = findSetter(type, names[i]);
+                    writers[i] = lookup.unreflect(method).asType(writerType);
+                } else {
+                    Field field = ReflectionUtils.findField(type, names[i]);
+                    if (field == null) {
+                        throw new ExpressionException("No field " + names[i] + " found for " + type.getName());
+                    }
+                    writers[i] = MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup())
+                            .unreflectSetter(field)
+                            .asType(writerType);
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new ExpressionException(e.getMessage(), e);
+        }
+        return writers;
+    }
+
+    private static Method findSetter(Class<?> type, String name) {
+        String setterName = "set" + StringUtils.capitalize(name);
+        return Arrays.stream(type.getMethods())
+                .filter(method -> method.getName().equals(setterName) && method.getParameterCount() == 1)
+                .findFirst()
+                .orElseThrow(() -> new ExpressionException("No setter " + setterName + " found for " + type.getName()));
+    }
+
+    private static MethodHandles.Lookup lookup(Class<?> type) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+    }
+
+    private static boolean isAssignable(Class<?>[] parameterTypes, Class<?>[] argTypes) {
+        if (parameterTypes.length != argTypes.length) {
+            return false;
+        }
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (!ClassUtils.resolvePrimitiveIfNecessary(parameterTypes[i])
+                    .isAssignableFrom(ClassUtils.resolvePrimitiveIfNecessary(argTypes[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * path 이름 또는 as() alias 이름
+     */
+    private static String nameOf(Expression<?> expr) {
+        if (expr instanceof Path) {
+            return ((Path<?>) expr).getMetadata().getName();
+        }
+        if (expr instanceof Operation && ((Operation<?>) expr).getOperator() == Ops.ALIAS) {
+            Expression<?> alias = ((Operation<?>) expr).getArg(1);
+            if (alias instanceof Path) {
+                return ((Path<?>) alias).getMetadata().getName();
+            }
+            return alias.toString();
+        }
+        throw new ExpressionException("Unsupported expression " + expr + "; use path or as(alias)");
+    }
+
+    private static MethodHandle nullToDefault(Class<?> primitiveType) {
+        Object defaultValue = Array.get(Array.newInstance(primitiveType, 1), 0);
+        MethodHandle filter = MethodHandles.insertArguments(DEFAULT_IF_NULL, 1, defaultValue);
+        return filter.asType(MethodType.methodType(primitiveType, Object.class));
+    }
+
+    private static Object defaultIfNull(Object value, Object defaultValue) {
+        return value == null ? defaultValue : value;
+    }
+}
@@ -0,0 +1,218 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.core.types.dsl.StringPath;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.UsernameMatch;
+import study.querydsl.entity.Member;
+import study.querydsl.sql.SMember;
+import study.querydsl.sql.STeam;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * {@link MemberSearchCondition} -> where 조건 compiler (repository 공통)<br/>
+ * : 조건 값 대신 {@link Param} 으로 만든 {@link BooleanExpression} tree 를 조건 모양(shape; 어떤 조건이 있는지) 별로 1번만 만들어 재사용<br/>
+ * : 조회 시에는 값만 binding ({@link CompiledCondition#applyTo})<br/>
+ * : 빈 문자열/null 조건은 무시 (기존 usernameEq, teamNameEq, ageGoe, ageLoe 와 같음)<br/>
+ * : teamName 조건은 team join 이 필요 ({@link CompiledCondition#requiresTeamJoin()})<br/>
+ * : ageGoe + ageLoe 는 between 1개로 합치고, ageGoe &gt; ageLoe 처럼 결과가 없는 조건은
+ * {@link CompiledCondition#isContradiction()} 로 표시 -> repository 는 DB 조회 없이 빈 결과 반환<br/>
+ * : username 은 {@link UsernameMatch} (EXACT / PREFIX / CONTAINS) + 대소문자 무시 여부에 따라 비교<br/>
+ * -> 대소문자 무시는 lower() 함수 대신 member.username_lower column 과 소문자 값을 비교 (index 사용)<br/>
+ * -> PREFIX 는 like 대신 범위 조건 (username &gt;= ? and username &lt; ? + {@link Character#MAX_VALUE})<br/>
+ * : 규칙은 여기 1곳에만 있고, 비교할 column 만 {@link Columns} 로 바꿔 JPA (QMember) 와 querydsl-sql (SMember) 에 같이 쓴다.
+ */
+public final class MemberConditions {
+    static final Param<String> USERNAME = new Param<>(String.class, "username");
+    static final Param<String> USERNAME_UPPER = new Param<>(String.class, "usernameUpper");
+    static final Param<String> TEAM_NAME = new Param<>(String.class, "teamName");
+    static final Param<Integer> AGE_GOE = new Param<>(Integer.class, "ageGoe");
+    static final Param<Integer> AGE_LOE = new Param<>(Integer.class, "ageLoe");
+
+    static final int USERNAME_BIT = 1;
+    static final int TEAM_NAME_EQ = 1 << 1;
+    static final int AGE_GOE_BIT = 1 << 2;
+    static final int AGE_LOE_BIT = 1 << 3;
+    static final int USERNAME_PREFIX = 1 << 4;
+    static final int USERNAME_CONTAINS = 1 << 5;
+    static final int USERNAME_IGNORE_CASE = 1 << 6;
+
+    private static final char LIKE_ESCAPE = '!';
+
+    /**
+     * 결과가 없는 조건 (contradiction) 에 applyTo 한 경우의 where 조건
+     */
+    static final Predicate ALWAYS_FALSE = Expressions.booleanTemplate("1 = 0");
+
+    private MemberConditions() {
+    }
+
+    public static CompiledCondition compile(MemberSearchCondition condition) {
+        int shape = 0;
+        if (hasText(condition.getUsername())) {
+            shape |= USERNAME_BIT;
+            if (condition.getUsernameMatch() == UsernameMatch.PREFIX) {
+                shape |= USERNAME_PREFIX;
+            } else if (condition.getUsernameMatch() == UsernameMatch.CONTAINS) {
+                shape |= USERNAME_CONTAINS;
+            }
+            if (condition.isUsernameIgnoreCase()) {
+                shape |= USERNAME_IGNORE_CASE;
+            }
+        }
+        if (hasText(condition.getTeamName())) {
+            shape |= TEAM_NAME_EQ;
+        }
+        if (condition.getAgeGoe() != null) {
+            shape |= AGE_GOE_BIT;
+        }
+        if (condition.getAgeLoe() != null) {
+            shape |= AGE_LOE_BIT;
+        }
+        if (isEmptyRange(condition.getAgeGoe(), condition.getAgeLoe())) {
+            return new CompiledCondition(shape, condition, true);
+        }
+        return new CompiledCondition(shape, condition, false);
+    }
+
+    /**
+     * username 비교 값 (대소문자 무시면 소문자, CONTAINS 면 like pattern)
+     */
+    public static String usernameOperand(String username, UsernameMatch match, boolean ignoreCase) {
+        String value = ignoreCase ? Member.lower(username) : username;
+        if (match == UsernameMatch.CONTAINS) {
+            return "%" + escapeLike(value) + "%";
+        }
+        return value;
+    }
+
+    /**
+     * PREFIX 범위 조건의 상한 (prefix 로 시작하는 모든 문자열보다 큼)
+     */
+    public static String prefixUpperBound(String prefix) {
+        return prefix + Character.MAX_VALUE;
+    }
+
+    public static char likeEscape() {
+        return LIKE_ESCAPE;
+    }
+
+    /**
+     * ageGoe &gt; ageLoe 이면 만족하는 row 가 없다.
+     */
+    public static boolean isEmptyRange(Integer ageGoe, Integer ageLoe) {
+        return ageGoe != null && ageLoe != null && ageGoe > ageLoe;
+    }
+
+    /**
+     * 나이 범위 조건 (값 그대로 사용; BooleanBuilder 등 compile 을 거치지 않는 곳에서 사용)<br/>
+     * : 둘 다 있으면 between, 하나만 있으면 goe / loe, 없으면 null
+     */
+    public static BooleanExpression ageBetween(Integer ageGoe, Integer ageLoe) {
+        if (ageGoe != null && ageLoe != null) {
+            return member.age.between(ageGoe, ageLoe);
+        }
+        if (ageGoe != null) {
+            return member.age.goe(ageGoe);
+        }
+        if (ageLoe != null) {
+            return member.age.loe(ageLoe);
+        }
+        return null;
+    }
+
+    private static BooleanExpression username(int shape, Columns columns) {
+        StringPath column = (shape & USERNAME_IGNORE_CASE) != 0 ? columns.usernameLower : columns.username;
+        if ((shape & USERNAME_PREFIX) != 0) {
+            return column.goe(USERNAME).and(column.lt(USERNAME_UPPER));
+        }
+        if ((shape & USERNAME_CONTAINS) != 0) {
+            return column.like(USERNAME, LIKE_ESCAPE);
+        }
+        return column.eq(USERNAME);
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 4);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * 조건이 없으면 null (where 절에서 무시됨)
+     */
+    private static Predicate build(int shape, Columns columns) {
+        List<Predicate> predicates = new ArrayList<>(4);
+        if ((shape & USERNAME_BIT) != 0) {
+            predicates.add(username(shape, columns));
+        }
+        if ((shape & TEAM_NAME_EQ) != 0) {
+            predicates.add(columns.teamName.eq(TEAM_NAME));
+        }
+        if ((shape & AGE_GOE_BIT) != 0 && (shape & AGE_LOE_BIT) != 0) {
+            predicates.add(columns.age.between(AGE_GOE, AGE_LOE));
+        } else if ((shape & AGE_GOE_BIT) != 0) {
+            predicates.add(columns.age.goe(AGE_GOE));
+        } else if ((shape & AGE_LOE_BIT) != 0) {
+            predicates.add(columns.age.loe(AGE_LOE));
+        }
+        if (predicates.isEmpty()) {
+            return null;
+        }
+        return Expressions.allOf(predicates.toArray(new BooleanExpression[0]));
+    }
+
+    /**
+     * 조건 규칙이 비교하는 column 묶음; where 조건 tree 는 column 묶음 + shape 별로 1번만 만든다.
+     */
+    public static final class Columns {
+        /**
+         * JPQL (member, member.team)
+         */
+        public static final Columns JPA = new Columns(member.username, member.usernameLower, member.age, team.name);
+        /**
+         * querydsl-sql (member m, team t)
+         */
+        public static final Columns SQL = new Columns(SMember.member.username, SMember.member.usernameLower,
+                SMember.member.age, STeam.team.name);
+
+        private final StringPath username;
+        private final StringPath usernameLower;
+        private final NumberPath<Integer> age;
+        private final StringPath teamName;
+        private final Map<Integer, Predicate> shapes = new ConcurrentHashMap<>();
+
+        private Columns(StringPath username, StringPath usernameLower, NumberPath<Integer> age, StringPath teamName) {
+            this.username = username;
+            this.usernameLower = usernameLower;
+            this.age = age;
+            this.teamName = teamName;
+        }
+
+        Predicate predicate(int shape) {
+            Predicate predicate = shapes.get(shape);
+            if (predicate == null && shape != 0) {
+                predicate = shapes.computeIfAbsent(shape, s -> build(s, this));
+            }
+            return predicate;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package study.querydsl.repository.support;
+
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberTeamDto;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * repository 공통 DTO projection<br/>
+ * : QMemberTeamDto, QMemberDto 와 같은 select 절, {@link DtoProjections} 로 생성
+ */
+public final class MemberProjections {
+    public static final ConstructorProjection<MemberTeamDto> MEMBER_TEAM_DTO = DtoProjections.constructor(
+            MemberTeamDto.class,
+            member.id,
+            member.username,
+            member.age,
+            team.id,
+            team.name);
+
+    public static final ConstructorProjection<MemberDto> MEMBER_DTO = DtoProjections.constructor(
+            MemberDto.class,
+            member.username,
+            member.age);
+
+    private MemberProjections() {
+    }
+
+    /**
+     * 조회마다 새 dictionary 로 teamName 중복 String 을 제거한 {@link #MEMBER_TEAM_DTO}
+     */
+    public static ConstructorProjection<MemberTeamDto> memberTeamDto() {
+        return MEMBER_TEAM_DTO.withDictionary(team.name);
+    }
+}
@@ -1,13 +1,20 @@
 package study.querydsl.repository.support;
 
+import com.querydsl.core.QueryMetadata;
 import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.Wildcard;
 import com.querydsl.core.types.dsl.PathBuilder;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
 import org.springframework.data.jpa.repository.support.Querydsl;
@@ -15,9 +22,11 @@ import org.springframework.data.querydsl.SimpleEntityPathResolver;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.Assert;
+import study.querydsl.statistics.QueryOrigins;
 
 import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
 
@@ -30,36 +39,54 @@ import java.util.function.Function;
 @Repository
 public abstract class Querydsl4RepositorySupport {
     private final Class domainClass;
-    private Querydsl querydsl;
+    private volatile Querydsl querydsl;
     private EntityManager entityManager;
-    private JPAQueryFactory queryFactory;
+    private volatile JPAQueryFactory queryFactory;
     public Querydsl4RepositorySupport(Class<?> domainClass) {
         Assert.notNull(domainClass, "Domain class must not be null!");
         this.domainClass = domainClass;
     }
+    /**
+     * context 시작 비용을 줄이기 위해 EntityManager 만 주입받고,
+     * {@link Querydsl}, {@link JPAQueryFactory} 는 처음 사용하는 시점에 생성한다.
+     */
     @Autowired
     public void setEntityManager(EntityManager entityManager) {
         Assert.notNull(entityManager, "EntityManager must not be null!");
-        /* path 를 제대로 잡아줘야 동적 sort 가 작동한다. */
-        JpaEntityInformation entityInformation =JpaEntityInformationSupport.getEntityInformation(domainClass, entityManager);
-        SimpleEntityPathResolver resolver = SimpleEntityPathResolver.INSTANCE;
-        EntityPath path = resolver.createPath(entityInformation.getJavaType());
         this.entityManager = entityManager;
-        this.querydsl = new Querydsl(entityManager, new PathBuilder<>(path.getType(), path.getMetadata()));
-        this.queryFactory = new JPAQueryFactory(entityManager);
-        /* path 를 제대로 잡아줘야 동적 sort 가 작동한다. */
     }
     @PostConstruct
     public void validate() {
         Assert.notNull(entityManager, "EntityManager must not be null!");
-        Assert.notNull(querydsl, "Querydsl must not be null!");
-        Assert.notNull(queryFactory, "QueryFactory must not be null!");
     }
     protected JPAQueryFactory getQueryFactory() {
-        return queryFactory;
+        JPAQueryFactory result = queryFactory;
+        if (result == null) {
+            synchronized (this) {
+                result = queryFactory;
+                if (result == null) {
+                    queryFactory = result = new JPAQueryFactory(entityManager);
+                }
+            }
+        }
+        return result;
     }
     protected Querydsl getQuerydsl() {
-        return querydsl;
+        Querydsl result = querydsl;
+        if (result == null) {
+            synchronized (this) {
+                result = querydsl;
+                if (result == null) {
+                    /* path 를 제대로 잡아줘야 동적 sort 가 작동한다. */
+                    JpaEntityInformation entityInformation = JpaEntityInformationSupport.getEntityInformation(domainClass, entityManager);
+                    SimpleEntityPathResolver resolver = SimpleEntityPathResolver.INSTANCE;
+                    EntityPath path = resolver.createPath(entityInformation.getJavaType());
+                    querydsl = result = new Querydsl(entityManager, new PathBuilder<>(path.getType(), path.getMetadata()));
+                    /* path 를 제대로 잡아줘야 동적 sort 가 작동한다. */
+                }
+            }
+        }
+        return result;
     }
     protected EntityManager getEntityManager() {
         return entityManager;
@@ -88,4 +115,68 @@ public abstract class Querydsl4RepositorySupport {
         return PageableExecutionUtils.getPage(content, pageable,
                 countResult::fetchCount);
     }
-}
\ No newline at end of file
+    /**
+     * origin 을 {@link QueryOrigins} 로 태깅 (content 는 정렬, paging 적용 후; count 는 origin + ".count")<br/>
+     * : fetchCount 는 태깅한 JPQL 과 다른 count JPQL 을 실행하므로, select count(..) 로 바꾼 query 를 태깅해서 fetchOne
+     */
+    protected <T> Page<T> applyPagination(Pageable pageable, String origin,
+                                          Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory,
+            JPAQuery> countQuery) {
+        JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
+        getQuerydsl().applyPagination(pageable, jpaContentQuery);
+        List<T> content = QueryOrigins.tag(jpaContentQuery, origin).fetch();
+        JPAQuery<Long> countResult = QueryOrigins.tag(toCountQuery(countQuery.apply(getQueryFactory())), origin + ".count");
+        return PageableExecutionUtils.getPage(content, pageable, () -> {
+            Long count = countResult.fetchOne();
+            return count == null ? 0 : count;
+        });
+    }
+    /**
+     * select x -> select count(x) (distinct 이면 count(distinct x)); path 가 아닌 projection (DTO 등) 은 count(*)
+     */
+    private static JPAQuery<Long> toCountQuery(JPAQuery<?> query) {
+        QueryMetadata metadata = query.getMetadata();
+        Expression<?> projection = metadata.getProjection();
+        Expression<Long> count;
+        if (!(projection instanceof Path)) {
+            count = Wildcard.count;
+        } else if (metadata.isDistinct()) {
+            count = Expressions.numberOperation(Long.class, Ops.AggOps.COUNT_DISTINCT_AGG, projection);
+        } else {
+            count = Expressions.numberOperation(Long.class, Ops.AggOps.COUNT_AGG, projection);
+        }
+        metadata.setDistinct(false);
+        return query.select(count);
+    }
+    /**
+     * count query 없이 다음 page 존재 여부만 확인 (무한 scroll)<br/>
+     * : page size + 1 건을 조회해서 초과분이 있으면 hasNext
+     */
+    protected <T> Slice<T> applySlicing(Pageable pageable,
+                                        Function<JPAQueryFactory, JPAQuery> contentQuery) {
+        return applySlicing(pageable, null, contentQuery);
+    }
+    /**
+     * @param origin null 이 아니면 {@link QueryOrigins} 로 태깅
+     */
+    protected <T> Slice<T> applySlicing(Pageable pageable, String origin,
+                                        Function<JPAQueryFactory, JPAQuery> contentQuery) {
+        JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+        getQuerydsl().applySorting(pageable.getSort(), jpaQuery);
+        if (pageable.isUnpaged()) {
+            List<T> content = tag(jpaQuery, origin).fetch();
+            return new SliceImpl<>(content, pageable, false);
+        }
+        jpaQuery.offset(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1L);
+        List<T> content = tag(jpaQuery, origin).fetch();
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, pageable.getPageSize()));
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+    private static JPAQuery tag(JPAQuery query, String origin) {
+        return origin == null ? query : QueryOrigins.tag(query, origin);
+    }
+}
@@ -0,0 +1,38 @@
+package study.querydsl.repository.support;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 조회 1회 범위의 String 중복 제거 dictionary<br/>
+ * : JDBC driver 는 row 마다 새 String 을 만들기 때문에, teamName 처럼 값 종류가 적은 column 은
+ * 같은 값을 하나의 인스턴스로 합쳐 결과 list 의 heap 사용량을 줄인다.<br/>
+ * : thread-safe 하지 않음; 하나의 조회 결과를 만드는 동안만 사용
+ */
+public class StringDictionary {
+    private final Map<String, String> values = new HashMap<>();
+    private long lookups;
+
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        lookups++;
+        String existing = values.putIfAbsent(value, value);
+        return existing == null ? value : existing;
+    }
+
+    /**
+     * dictionary 에 담긴 서로 다른 값의 수
+     */
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * 중복 제거된(버려진) String 인스턴스 수
+     */
+    public long deduplicated() {
+        return lookups - values.size();
+    }
+}
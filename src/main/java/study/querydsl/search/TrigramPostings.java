@@ -0,0 +1,254 @@
+package study.querydsl.search;
+
+import study.querydsl.entity.Member;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * n-gram (1 ~ 3글자) 역색인 자료구조 (thread-safe 아님; {@link UsernameIndex} 가 lock 으로 보호)<br/>
+ * : "member1" -> m, e, ..., me, em, ..., mem, emb, mbe, ber, er1<br/>
+ * : 3글자 이하 검색어는 posting 1개가 곧 결과 (전체 username 을 검사하지 않음)<br/>
+ * : 3글자 초과는 모든 trigram 을 가진 id 의 교집합을 구한 뒤, 실제 포함 여부를 다시 확인 (trigram 순서가 다른 false positive 제거)<br/>
+ * : posting 은 정렬된 long[] (boxing 없음); 결과는 member_id 오름차순이므로 앞에서부터 limit 개만 꺼낸다.<br/>
+ * : 1 ~ 2글자 gram 의 posting 은 거의 모든 id 를 가지므로 삭제는 표시만 하고 모아서 압축 ({@link Posting})<br/>
+ * : n-gram 은 소문자 기준, username 은 원래 값을 보관 (자동완성 응답을 DB 조회 없이 만든다)
+ */
+class TrigramPostings {
+    static final int GRAM = 3;
+
+    private final Map<String, Posting> postings = new HashMap<>();
+    private final Map<Long, String> usernames = new HashMap<>();
+
+    /**
+     * 같은 id 가 이미 있으면 교체 (변경 통지를 중복 적용해도 같은 결과)
+     */
+    void add(long id, String username) {
+        remove(id);
+        if (username == null) {
+            return;
+        }
+        usernames.put(id, username);
+        for (String gram : grams(Member.lower(username))) {
+            postings.computeIfAbsent(gram, g -> new Posting()).add(id);
+        }
+    }
+
+    void remove(long id) {
+        String username = usernames.remove(id);
+        if (username == null) {
+            return;
+        }
+        for (String gram : grams(Member.lower(username))) {
+            Posting ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    int size() {
+        return usernames.size();
+    }
+
+    String username(long id) {
+        return usernames.get(id);
+    }
+
+    /**
+     * @param fragment 소문자
+     * @return fragment 를 포함하는 id (오름차순, 최대 limit 개)
+     */
+    List<Long> search(String fragment, int limit) {
+        return search(fragment, Long.MIN_VALUE, limit);
+    }
+
+    /**
+     * @param fragment 소문자
+     * @param afterId  이 id 보다 큰 id 만 (앞 묶음의 마지막 id; 처음이면 {@link Long#MIN_VALUE})
+     * @return fragment 를 포함하는 id (오름차순, 최대 limit 개)
+     */
+    List<Long> search(String fragment, long afterId, int limit) {
+        if (fragment == null || fragment.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        if (fragment.length() <= GRAM) {
+            Posting ids = postings.get(fragment);
+            return ids == null ? Collections.emptyList() : ids.head(afterId, limit);
+        }
+
+        /* posting 이 가장 작은 trigram 부터 교집합 */
+        List<Posting> candidates = new ArrayList<>();
+        for (String gram : trigrams(fragment)) {
+            Posting ids = postings.get(gram);
+            if (ids == null) {
+                return Collections.emptyList();
+            }
+            candidates.add(ids);
+        }
+        candidates.sort((a, b) -> Integer.compare(a.live, b.live));
+
+        Posting smallest = candidates.get(0);
+        int[] cursors = new int[candidates.size()];
+        List<Long> result = new ArrayList<>(Math.min(limit, smallest.live));
+        for (int i = smallest.indexAfter(afterId); i < smallest.size && result.size() < limit; i++) {
+            if (smallest.removed.get(i)) {
+                continue;
+            }
+            long id = smallest.ids[i];
+            if (containsAll(candidates, cursors, id) && Member.lower(usernames.get(id)).contains(fragment)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * id 는 오름차순으로 들어오므로 각 posting 의 탐색 시작 위치 (cursor) 를 앞으로만 옮긴다.
+     */
+    private static boolean containsAll(List<Posting> candidates, int[] cursors, long id) {
+        for (int i = 1; i < candidates.size(); i++) {
+            Posting posting = candidates.get(i);
+            int found = Arrays.binarySearch(posting.ids, cursors[i], posting.size, id);
+            if (found < 0) {
+                cursors[i] = -found - 1;
+                return false;
+            }
+            cursors[i] = found + 1;
+            if (posting.removed.get(found)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 1 ~ GRAM 글자 부분 문자열 (중복 제거)
+     */
+    private static Set<String> grams(String value) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int n = 1; n <= GRAM; n++) {
+            for (int i = 0; i + n <= value.length(); i++) {
+                grams.add(value.substring(i, i + n));
+            }
+        }
+        return grams;
+    }
+
+    private static Set<String> trigrams(String value) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    /**
+     * 정렬된 id 배열; 재구성 시 id 오름차순으로 읽으므로 대부분 뒤에 붙이기만 한다.<br/>
+     * : 삭제는 위치에 표시 (removed) 만 하고, 표시된 id 가 남은 id 보다 많아지면 1번에 압축 (삭제 1건당 평균 O(1))<br/>
+     * : 중간 삽입 (드문 경우) 만 배열을 옮기며, 그 전에 압축해서 표시 위치가 어긋나지 않게 한다.
+     */
+    private static class Posting {
+        private long[] ids = new long[4];
+        private final BitSet removed = new BitSet();
+        /**
+         * 배열에 있는 id 수 (삭제 표시 포함)
+         */
+        private int size;
+        /**
+         * 삭제 표시되지 않은 id 수
+         */
+        private int live;
+
+        void add(long id) {
+            if (size == 0 || ids[size - 1] < id) {
+                grow();
+                ids[size++] = id;
+                live++;
+                return;
+            }
+            int found = Arrays.binarySearch(ids, 0, size, id);
+            if (found >= 0) {
+                if (removed.get(found)) {
+                    removed.clear(found);
+                    live++;
+                }
+                return;
+            }
+            compact();
+            int at = -Arrays.binarySearch(ids, 0, size, id) - 1;
+            grow();
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+            live++;
+        }
+
+        void remove(long id) {
+            int found = Arrays.binarySearch(ids, 0, size, id);
+            if (found < 0 || removed.get(found)) {
+                return;
+            }
+            removed.set(found);
+            live--;
+            if (size - live > live) {
+                compact();
+            }
+        }
+
+        boolean isEmpty() {
+            return live == 0;
+        }
+
+        /**
+         * afterId 보다 큰 첫 id 의 위치
+         */
+        int indexAfter(long afterId) {
+            if (size == 0 || afterId < ids[0]) {
+                return 0;
+            }
+            int found = Arrays.binarySearch(ids, 0, size, afterId);
+            return found >= 0 ? found + 1 : -found - 1;
+        }
+
+        List<Long> head(long afterId, int limit) {
+            List<Long> result = new ArrayList<>(Math.min(limit, live));
+            for (int i = indexAfter(afterId); i < size && result.size() < limit; i++) {
+                if (!removed.get(i)) {
+                    result.add(ids[i]);
+                }
+            }
+            return result;
+        }
+
+        private void compact() {
+            if (live == size) {
+                return;
+            }
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (!removed.get(i)) {
+                    ids[n++] = ids[i];
+                }
+            }
+            removed.clear();
+            size = n;
+        }
+
+        private void grow() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+        }
+    }
+}
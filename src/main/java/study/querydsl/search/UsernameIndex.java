@@ -0,0 +1,261 @@
+package study.querydsl.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import study.querydsl.change.ChangeTracker;
+import study.querydsl.change.EntityChange;
+import study.querydsl.dto.MemberUsernameDto;
+import study.querydsl.entity.Member;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * username 자동완성용 in-memory 역색인 (1 ~ 3글자 n-gram -> member_id)<br/>
+ * : 시작 시 member table 을 streaming 으로 읽어 구성 (ApplicationReadyEvent, background)<br/>
+ * : 이후 {@link ChangeTracker} commit 통지로 갱신 (insert/update/delete 는 1건씩, bulk 는 전체 재구성)<br/>
+ * : 재구성은 한 번에 하나씩; 재구성 중에 들어온 변경은 새 색인에도 다시 적용한 뒤 교체한다. (id 단위로 덮어쓰므로 중복 적용돼도 같음)<br/>
+ * : 재구성 중에 bulk 변경이 commit 되면 새 색인에 들어 있는지 알 수 없으므로 구성 전 상태로 두고 다시 재구성<br/>
+ * : 검색은 대소문자 무시 부분 일치 (contains), member_id 순서로 앞에서부터 limit 개<br/>
+ * : {@link #suggest(String, int)} 는 member_id, username 을 색인에서 바로 꺼낸다. (DB 조회 없음)
+ */
+@Slf4j
+@Component
+public class UsernameIndex {
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskExecutor taskExecutor;
+    private final boolean bootstrap;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * 재구성은 한 번에 하나씩 (bootstrap, bulk 변경, 직접 호출)
+     */
+    private final Lock rebuildLock = new ReentrantLock();
+    /**
+     * 예약만 되고 아직 시작하지 않은 재구성이 있으면 true (bulk 변경이 몰려도 1번만 예약)
+     */
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    private TrigramPostings postings = new TrigramPostings();
+    private List<EntityChange> changesDuringRebuild;
+    private boolean bulkDuringRebuild;
+    private volatile boolean ready;
+
+    public UsernameIndex(JdbcTemplate jdbcTemplate,
+                         ChangeTracker changeTracker,
+                         @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                         @Value("${username-index.bootstrap:true}") boolean bootstrap) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskExecutor = taskExecutor;
+        this.bootstrap = bootstrap;
+        changeTracker.subscribe(this::onCommit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        if (bootstrap) {
+            scheduleRebuild();
+        }
+    }
+
+    /**
+     * 구성이 끝나기 전에는 false; 호출하는 쪽은 DB 검색으로 대체한다.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return fragment 를 (대소문자 무시) 포함하는 username 의 member_id (오름차순)
+     */
+    public List<Long> search(String fragment) {
+        return search(fragment, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return fragment 를 (대소문자 무시) 포함하는 username 의 member_id (오름차순, 최대 limit 개)
+     */
+    public List<Long> search(String fragment, int limit) {
+        return search(fragment, Long.MIN_VALUE, limit);
+    }
+
+    /**
+     * 후보를 묶음 단위로 나눠 받을 때 사용 (afterId = 앞 묶음의 마지막 member_id)
+     *
+     * @return fragment 를 (대소문자 무시) 포함하는 username 의 member_id 중 afterId 보다 큰 것 (오름차순, 최대 limit 개)
+     */
+    public List<Long> search(String fragment, long afterId, int limit) {
+        String lower = Member.lower(fragment);
+        lock.readLock().lock();
+        try {
+            return postings.search(lower, afterId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 자동완성 후보; commit 된 상태 기준 (현재 transaction 의 commit 전 변경은 반영되지 않음)
+     *
+     * @return member_id 순서, 최대 limit 개
+     */
+    public List<MemberUsernameDto> suggest(String fragment, int limit) {
+        String lower = Member.lower(fragment);
+        lock.readLock().lock();
+        try {
+            List<Long> ids = postings.search(lower, limit);
+            List<MemberUsernameDto> result = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                result.add(new MemberUsernameDto(id, postings.username(id)));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * member table 전체를 읽어 새 색인을 만든 뒤 교체
+     */
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            rebuildExclusively();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuildExclusively() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+            bulkDuringRebuild = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        TrigramPostings fresh = new TrigramPostings();
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement("select member_id, username from member order by member_id");
+                ps.setFetchSize(FETCH_SIZE);
+                return ps;
+            }, (RowCallbackHandler) rs -> fresh.add(rs.getLong(1), rs.getString(2)));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.warn("username index rebuild failed", e);
+            return;
+        }
+
+        boolean bulk;
+        lock.writeLock().lock();
+        try {
+            for (EntityChange change : changesDuringRebuild) {
+                apply(fresh, change);
+            }
+            changesDuringRebuild = null;
+            bulk = bulkDuringRebuild;
+            postings = fresh;
+            ready = !bulk;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (bulk) {
+            scheduleRebuild();
+            return;
+        }
+        log.info("username index built: {} members", fresh.size());
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            taskExecutor.execute(() -> {
+                /* 시작 후에 들어온 요청은 다시 예약되도록 읽기 전에 해제 */
+                rebuildScheduled.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    private void onCommit(List<EntityChange> changes) {
+        boolean rebuild = false;
+        lock.writeLock().lock();
+        try {
+            for (EntityChange change : changes) {
+                if (!change.isOf(Member.class)) {
+                    continue;
+                }
+                if (change.getType() == EntityChange.Type.BULK) {
+                    /* 구성 전 (bootstrap 을 끈 경우 등) 이면 무시, 구성 중이면 끝난 뒤 다시 */
+                    if (changesDuringRebuild != null) {
+                        bulkDuringRebuild = true;
+                    } else if (ready) {
+                        ready = false;
+                        rebuild = true;
+                    }
+                    continue;
+                }
+                apply(postings, change);
+                if (changesDuringRebuild != null) {
+                    changesDuringRebuild.add(change);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (rebuild) {
+            /* bulk update/delete 는 어떤 row 가 바뀌었는지 모르므로 재구성; 끝날 때까지 호출하는 쪽은 DB 검색으로 대체 */
+            scheduleRebuild();
+        }
+    }
+
+    private static void apply(TrigramPostings target, EntityChange change) {
+        Long id = (Long) change.getId();
+        String before = (String) change.getPreviousState().get("username");
+        String after = (String) change.getState().get("username");
+        switch (change.getType()) {
+            case INSERT:
+                target.add(id, after);
+                break;
+            case UPDATE:
+                if (!Objects.equals(before, after)) {
+                    target.add(id, after);
+                }
+                break;
+            case DELETE:
+                target.remove(id);
+                break;
+            default:
+        }
+    }
+}
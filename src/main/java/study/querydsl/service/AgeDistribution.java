@@ -0,0 +1,112 @@
+package study.querydsl.service;
+
+import study.querydsl.dto.AgeHistogramDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * age -> 인원 (정확한 분포; age 종류 수 만큼의 크기)<br/>
+ * : age 는 종류가 적은 정수라서 근사 sketch 대신 값별 인원을 그대로 두고 합쳐도 (merge) 크기가 늘지 않는다.<br/>
+ * : histogram / percentile / 구간 인원을 모두 이 분포에서 계산 (member table 을 읽지 않음)
+ */
+class AgeDistribution {
+    /**
+     * histogram 구간 수 상한; 넘으면 구간 폭을 넓힌다.
+     */
+    static final int MAX_BUCKETS = 100;
+
+    private final String teamName;
+    private final NavigableMap<Integer, Long> ageCounts;
+    private final long count;
+
+    AgeDistribution(String teamName, NavigableMap<Integer, Long> ageCounts) {
+        this.teamName = teamName;
+        this.ageCounts = ageCounts;
+        long sum = 0;
+        for (Long members : ageCounts.values()) {
+            sum += members;
+        }
+        this.count = sum;
+    }
+
+    static AgeDistribution merge(String teamName, Iterable<TeamAgeSummary> summaries) {
+        TreeMap<Integer, Long> merged = new TreeMap<>();
+        for (TeamAgeSummary summary : summaries) {
+            summary.mergeInto(merged);
+        }
+        return new AgeDistribution(teamName, merged);
+    }
+
+    long count() {
+        return count;
+    }
+
+    /**
+     * ageGoe &lt;= age &lt;= ageLoe 인 인원 (null 이면 조건 없음)
+     */
+    long countBetween(Integer ageGoe, Integer ageLoe) {
+        if (ageGoe != null && ageLoe != null && ageGoe > ageLoe) {
+            return 0;
+        }
+        NavigableMap<Integer, Long> range = ageCounts;
+        if (ageGoe != null) {
+            range = range.tailMap(ageGoe, true);
+        }
+        if (ageLoe != null) {
+            range = range.headMap(ageLoe, true);
+        }
+        long sum = 0;
+        for (Long members : range.values()) {
+            sum += members;
+        }
+        return sum;
+    }
+
+    /**
+     * nearest-rank percentile (0 &lt; p &lt;= 1); 인원이 없으면 null
+     */
+    Integer percentile(double p) {
+        if (!(p > 0 && p <= 1)) {
+            throw new IllegalArgumentException("percentile must be in (0, 1]: " + p);
+        }
+        if (count == 0) {
+            return null;
+        }
+        long rank = (long) Math.ceil(p * count);
+        long seen = 0;
+        for (Map.Entry<Integer, Long> entry : ageCounts.entrySet()) {
+            seen += entry.getValue();
+            if (seen >= rank) {
+                return entry.getKey();
+            }
+        }
+        return ageCounts.lastKey();
+    }
+
+    /**
+     * [0, width-1], [width, 2*width-1] ... 구간 (rankCaseTest 의 0~20, 21~30 처럼 고정 폭); 인원이 없는 앞뒤 구간은 생략<br/>
+     * : 구간이 {@link #MAX_BUCKETS} 개를 넘으면 넘지 않도록 폭을 넓힌다. (응답의 bucketWidth 가 실제 폭)
+     */
+    AgeHistogramDto histogram(int width) {
+        if (width <= 0) {
+            throw new IllegalArgumentException("bucket width must be positive: " + width);
+        }
+        List<AgeHistogramDto.Bucket> buckets = new ArrayList<>();
+        if (!ageCounts.isEmpty()) {
+            long range = (long) ageCounts.lastKey() - ageCounts.firstKey();
+            width = (int) Math.max(width, range / (MAX_BUCKETS - 1) + 1);
+            int first = Math.floorDiv(ageCounts.firstKey(), width);
+            int last = Math.floorDiv(ageCounts.lastKey(), width);
+            for (int bucket = first; bucket <= last; bucket++) {
+                int ageGoe = bucket * width;
+                int ageLoe = ageGoe + width - 1;
+                buckets.add(new AgeHistogramDto.Bucket(ageGoe, ageLoe, countBetween(ageGoe, ageLoe)));
+            }
+        }
+        return new AgeHistogramDto(teamName, count, width, buckets);
+    }
+}
@@ -0,0 +1,62 @@
+package study.querydsl.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * searchPage() 결과를 List 로 모으지 않고 cursor 에서 바로 응답 stream 으로 출력<br/>
+ * : cursor 를 소비하는 동안 transaction(connection) 이 열려 있어야 하므로 service 에서 transaction 을 잡는다.<br/>
+ * : 느린 client 가 cursor, connection 을 계속 잡고 있지 않도록 member-search.stream.timeout 이 지나면 중단 (QueryTimeoutException, rollback)<br/>
+ * -> row 사이마다 확인하므로, 출력 1번이 막혀 있는 시간은 servlet container 의 write timeout (server.tomcat.connection-timeout) 으로 제한된다.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class MemberSearchStreamService {
+    private final MemberRepository memberRepository;
+
+    @Value("${member-search.stream.timeout:30s}")
+    private Duration timeout;
+
+    public void writePage(MemberSearchCondition condition, Pageable pageable, JsonGenerator gen) throws IOException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        MemberTeamStreamWriter writer = new MemberTeamStreamWriter(gen);
+        writer.startPage();
+        try (Stream<MemberTeamDto> rows = memberRepository.searchPageStream(condition, pageable)) {
+            Iterator<MemberTeamDto> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.writeRow(iterator.next());
+                if (System.nanoTime() - deadline >= 0) {
+                    throw new QueryTimeoutException("member stream exceeded " + timeout + " after " + writer.getRowCount() + " rows");
+                }
+            }
+        }
+        writer.endPage(pageable.getPageNumber(), pageable.getPageSize(), total(condition, pageable, writer.getRowCount()));
+    }
+
+    /**
+     * PageableExecutionUtils.getPage() 와 같은 count 생략 규칙
+     */
+    private long total(MemberSearchCondition condition, Pageable pageable, int rowCount) {
+        if (pageable.getOffset() == 0 && rowCount < pageable.getPageSize()) {
+            return rowCount;
+        }
+        if (rowCount != 0 && rowCount < pageable.getPageSize()) {
+            return pageable.getOffset() + rowCount;
+        }
+        return memberRepository.searchCount(condition);
+    }
+}
@@ -0,0 +1,101 @@
+package study.querydsl.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.IOException;
+
+/**
+ * {@link MemberTeamDto} / Page envelope 을 {@link JsonGenerator} 에 직접 출력<br/>
+ * : field 이름은 미리 encoding 된 {@link SerializedString} 재사용 (reflection, BeanSerializer 거치지 않음)<br/>
+ * : Page 는 content 를 먼저 출력하고, row 수를 센 뒤 total 등 나머지 field 를 이어서 출력한다.
+ */
+public class MemberTeamStreamWriter {
+    private static final SerializableString CONTENT = new SerializedString("content");
+    private static final SerializableString MEMBER_ID = new SerializedString("memberId");
+    private static final SerializableString USERNAME = new SerializedString("username");
+    private static final SerializableString AGE = new SerializedString("age");
+    private static final SerializableString TEAM_ID = new SerializedString("teamId");
+    private static final SerializableString TEAM_NAME = new SerializedString("teamName");
+    private static final SerializableString TOTAL_ELEMENTS = new SerializedString("totalElements");
+    private static final SerializableString TOTAL_PAGES = new SerializedString("totalPages");
+    private static final SerializableString NUMBER = new SerializedString("number");
+    private static final SerializableString SIZE = new SerializedString("size");
+    private static final SerializableString NUMBER_OF_ELEMENTS = new SerializedString("numberOfElements");
+    private static final SerializableString FIRST = new SerializedString("first");
+    private static final SerializableString LAST = new SerializedString("last");
+    private static final SerializableString EMPTY = new SerializedString("empty");
+
+    private final JsonGenerator gen;
+    private int rowCount;
+
+    public MemberTeamStreamWriter(JsonGenerator gen) {
+        this.gen = gen;
+    }
+
+    public void startPage() throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName(CONTENT);
+        gen.writeStartArray();
+    }
+
+    public void writeRow(MemberTeamDto dto) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName(MEMBER_ID);
+        writeNumberOrNull(dto.getMemberId());
+        gen.writeFieldName(USERNAME);
+        gen.writeString(dto.getUsername());
+        gen.writeFieldName(AGE);
+        gen.writeNumber(dto.getAge());
+        gen.writeFieldName(TEAM_ID);
+        writeNumberOrNull(dto.getTeamId());
+        gen.writeFieldName(TEAM_NAME);
+        gen.writeString(dto.getTeamName());
+        gen.writeEndObject();
+        if (rowCount++ == 0) {
+            gen.flush();//time to first byte
+        }
+    }
+
+    /**
+     * @param pageNumber Pageable.getPageNumber()
+     * @param pageSize   Pageable.getPageSize()
+     * @param total      전체 건수
+     */
+    public void endPage(int pageNumber, int pageSize, long total) throws IOException {
+        gen.writeEndArray();
+        int totalPages = pageSize == 0 ? 1 : (int) Math.ceil((double) total / (double) pageSize);
+        gen.writeFieldName(TOTAL_ELEMENTS);
+        gen.writeNumber(total);
+        gen.writeFieldName(TOTAL_PAGES);
+        gen.writeNumber(totalPages);
+        gen.writeFieldName(NUMBER);
+        gen.writeNumber(pageNumber);
+        gen.writeFieldName(SIZE);
+        gen.writeNumber(pageSize);
+        gen.writeFieldName(NUMBER_OF_ELEMENTS);
+        gen.writeNumber(rowCount);
+        gen.writeFieldName(FIRST);
+        gen.writeBoolean(pageNumber == 0);
+        gen.writeFieldName(LAST);
+        gen.writeBoolean(pageNumber + 1 >= totalPages);
+        gen.writeFieldName(EMPTY);
+        gen.writeBoolean(rowCount == 0);
+        gen.writeEndObject();
+        gen.flush();
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    private void writeNumberOrNull(Long value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+}
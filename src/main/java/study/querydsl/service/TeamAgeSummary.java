@@ -0,0 +1,74 @@
+package study.querydsl.service;
+
+import study.querydsl.dto.TeamStatisticsDto;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * team 1개의 member age 집계 (thread-safe 아님; {@link TeamStatisticsService} 가 lock 으로 보호)<br/>
+ * : age 별 인원을 같이 들고 있어서 member 가 빠져도 min/max 를 다시 조회하지 않고 구할 수 있다.
+ */
+class TeamAgeSummary {
+    private final Long teamId;
+    private String teamName;
+    private final TreeMap<Integer, Long> ageCounts = new TreeMap<>();
+    private long count;
+    private long ageSum;
+
+    TeamAgeSummary(Long teamId, String teamName) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+    }
+
+    void rename(String teamName) {
+        this.teamName = teamName;
+    }
+
+    void add(int age, long members) {
+        ageCounts.merge(age, members, Long::sum);
+        count += members;
+        ageSum += (long) age * members;
+    }
+
+    void remove(int age) {
+        Long members = ageCounts.get(age);
+        if (members == null) {
+            return;
+        }
+        if (members == 1) {
+            ageCounts.remove(age);
+        } else {
+            ageCounts.put(age, members - 1);
+        }
+        count--;
+        ageSum -= age;
+    }
+
+    String getTeamName() {
+        return teamName;
+    }
+
+    void mergeInto(Map<Integer, Long> target) {
+        ageCounts.forEach((age, members) -> target.merge(age, members, Long::sum));
+    }
+
+    /**
+     * reconcile 용; 같은 team 이름, 같은 age 분포
+     */
+    boolean sameAs(TeamAgeSummary other) {
+        return Objects.equals(teamName, other.teamName) && ageCounts.equals(other.ageCounts);
+    }
+
+    TeamStatisticsDto toDto() {
+        return TeamStatisticsDto.builder()
+                .teamId(teamId)
+                .teamName(teamName)
+                .count(count)
+                .ageSum(ageSum)
+                .ageMin(ageCounts.isEmpty() ? null : ageCounts.firstKey())
+                .ageMax(ageCounts.isEmpty() ? null : ageCounts.lastKey())
+                .build();
+    }
+}
@@ -0,0 +1,448 @@
+package study.querydsl.service;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.change.ChangeTracker;
+import study.querydsl.change.EntityChange;
+import study.querydsl.change.TableVersions;
+import study.querydsl.dto.AgeHistogramDto;
+import study.querydsl.dto.TeamStatisticsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * team 별 member 집계 (count, sum, avg, min, max of age); QuerydslBasicTest.groupByTest 의 결과를 미리 계산해 둔다.<br/>
+ * : 시작 시 1번 group by 로 구성 (ApplicationReadyEvent, background)<br/>
+ * : 이후 {@link ChangeTracker} commit 통지로 갱신 (member insert/delete, age/team 변경, team insert/rename/delete)<br/>
+ * : bulk update/delete 는 어떤 row 가 바뀌었는지 모르므로 전체 재구성<br/>
+ * : 재구성은 한 번에 하나씩; 재구성 중에 commit 된 변경이 있으면 새 집계에 이미 들어 있는지 알 수 없으므로
+ * 적용하지 않고, 구성 전 상태로 두고 재구성을 다시 예약한다. (다시 적용하면 load 전에 commit 된 변경이 두 번 더해짐)<br/>
+ * -> 쓰기가 계속 들어오면 매번 변경을 보게 되므로 MAX_RETRIES 번까지만 다시 구성하고, 그 다음 집계는 그대로 사용 (warn log)<br/>
+ * -> 이때 load 중에 commit 된 변경 일부가 빠져 있을 수 있고, reconcile 이 table 과 비교하여 보정한다.<br/>
+ * : 조회는 team 수 만큼만 (member table 을 읽지 않음); 구성 전이거나 현재 transaction 에 commit 전 변경이 있으면 group by 조회로 대체<br/>
+ * : team 별 age 분포 (histogram, percentile, 구간 인원) 도 같은 집계에서 계산<br/>
+ * : team-statistics.reconcile.fixed-delay 주기로 table 과 비교하여 어긋나 있으면 교체 (team.statistics.reconcile{result=match|drift})
+ */
+@Slf4j
+@Service
+public class TeamStatisticsService {
+    private static final Comparator<TeamStatisticsDto> BY_TEAM_NAME =
+            Comparator.comparing(TeamStatisticsDto::getTeamName, Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(TeamStatisticsDto::getTeamId);
+    /**
+     * 구성 중 변경 때문에 연달아 다시 구성하는 최대 횟수
+     */
+    private static final int MAX_RETRIES = 3;
+
+    private final JPAQueryFactory queryFactory;
+    private final ChangeTracker changeTracker;
+    private final TransactionTemplate rebuildTx;
+    private final TaskExecutor taskExecutor;
+    private final boolean bootstrap;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Counter reconcileMatch;
+    private final Counter reconcileDrift;
+
+    /**
+     * 재구성은 한 번에 하나씩 (예약된 재구성, 직접 호출, reconcile)
+     */
+    private final Lock rebuildLock = new ReentrantLock();
+    /**
+     * 예약만 되고 아직 시작하지 않은 재구성이 있으면 true (commit 통지가 몰려도 1번만 예약)
+     */
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    /**
+     * 구성 중 변경 때문에 연달아 다시 구성한 횟수 (rebuildLock 안에서만 사용)
+     */
+    private int retries;
+
+    private Map<Long, TeamAgeSummary> summaries = new HashMap<>();
+    private boolean rebuilding;
+    private boolean changedDuringRebuild;
+    private volatile boolean ready;
+
+    public TeamStatisticsService(JPAQueryFactory queryFactory,
+                                 ChangeTracker changeTracker,
+                                 PlatformTransactionManager transactionManager,
+                                 @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${team-statistics.bootstrap:true}") boolean bootstrap) {
+        this.queryFactory = queryFactory;
+        this.changeTracker = changeTracker;
+        this.taskExecutor = taskExecutor;
+        this.bootstrap = bootstrap;
+        /* 재구성은 항상 commit 된 데이터 기준 (호출한 쪽 transaction 의 commit 전 변경이 섞이지 않게) */
+        this.rebuildTx = new TransactionTemplate(transactionManager);
+        this.rebuildTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.rebuildTx.setReadOnly(true);
+        this.reconcileMatch = counter(meterRegistry, "match");
+        this.reconcileDrift = counter(meterRegistry, "drift");
+        changeTracker.subscribe(this::onCommit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        if (bootstrap) {
+            scheduleRebuild();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return team 이름 순서
+     */
+    public List<TeamStatisticsDto> findAll() {
+        if (!servable()) {
+            return toDtos(load());
+        }
+        lock.readLock().lock();
+        try {
+            return toDtos(summaries);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<TeamStatisticsDto> findByTeamName(String teamName) {
+        return findAll().stream()
+                .filter(dto -> Objects.equals(dto.getTeamName(), teamName))
+                .findFirst();
+    }
+
+    /**
+     * @param teamName null 이면 전체 team 합산
+     * @param bucketWidth 구간 폭 (ex. 10 -> 0~9, 10~19, ...)
+     */
+    public AgeHistogramDto ageHistogram(String teamName, int bucketWidth) {
+        return distribution(teamName).histogram(bucketWidth);
+    }
+
+    /**
+     * @param p 0 &lt; p &lt;= 1 (ex. 0.5 -> 중앙값); member 가 없으면 null
+     */
+    public Integer agePercentile(String teamName, double p) {
+        return distribution(teamName).percentile(p);
+    }
+
+    /**
+     * ageGoe &lt;= age &lt;= ageLoe 인 member 수 (null 이면 조건 없음)
+     */
+    public long countByAge(String teamName, Integer ageGoe, Integer ageLoe) {
+        return distribution(teamName).countBetween(ageGoe, ageLoe);
+    }
+
+    private AgeDistribution distribution(String teamName) {
+        if (!servable()) {
+            return AgeDistribution.merge(teamName, select(load().values(), teamName));
+        }
+        lock.readLock().lock();
+        try {
+            return AgeDistribution.merge(teamName, select(summaries.values(), teamName));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<TeamAgeSummary> select(Collection<TeamAgeSummary> summaries, String teamName) {
+        List<TeamAgeSummary> result = new ArrayList<>();
+        for (TeamAgeSummary summary : summaries) {
+            if (teamName == null || teamName.equals(summary.getTeamName())) {
+                result.add(summary);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * group by 1번으로 새로 구성한 뒤 교체; 구성 중에 commit 된 변경이 있으면 재구성을 다시 예약
+     */
+    public void rebuild() {
+        reload(false);
+    }
+
+    /**
+     * table 을 다시 읽어 현재 집계와 비교 후 교체 (놓친 변경, 직접 실행한 SQL 등 보정)
+     *
+     * @return 현재 집계가 table 과 같았으면 true
+     */
+    @Scheduled(fixedDelayString = "${team-statistics.reconcile.fixed-delay:600000}",
+            initialDelayString = "${team-statistics.reconcile.fixed-delay:600000}")
+    public boolean reconcile() {
+        if (!ready) {
+            return false;
+        }
+        return reload(true);
+    }
+
+    private boolean reload(boolean compare) {
+        rebuildLock.lock();
+        try {
+            return reloadExclusively(compare);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private boolean reloadExclusively(boolean compare) {
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            changedDuringRebuild = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Long, TeamAgeSummary> fresh;
+        try {
+            fresh = load();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.warn("team statistics rebuild failed", e);
+            return false;
+        }
+
+        boolean same;
+        boolean changed;
+        boolean retry;
+        lock.writeLock().lock();
+        try {
+            rebuilding = false;
+            changed = changedDuringRebuild;
+            retry = changed && retries < MAX_RETRIES;
+            same = !changed && ready && sameAs(summaries, fresh);
+            summaries = fresh;
+            ready = !retry;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (retry) {
+            /* 새 집계가 구성 중의 변경을 포함하는지 알 수 없음 -> 다시 구성할 때까지 group by 로 대체 */
+            retries++;
+            scheduleRebuild();
+            return false;
+        }
+        retries = 0;
+        if (changed) {
+            log.warn("team statistics kept changing during {} rebuilds; serving the last one ({} teams) until reconcile",
+                    MAX_RETRIES + 1, fresh.size());
+            return false;
+        }
+        if (!compare) {
+            log.info("team statistics built: {} teams", fresh.size());
+        } else if (same) {
+            reconcileMatch.increment();
+        } else {
+            reconcileDrift.increment();
+            log.warn("team statistics drifted from table; replaced with {} teams", fresh.size());
+        }
+        return same;
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            taskExecutor.execute(() -> {
+                /* 시작 후에 들어온 요청은 다시 예약되도록 load 전에 해제 */
+                rebuildScheduled.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    private static boolean sameAs(Map<Long, TeamAgeSummary> current, Map<Long, TeamAgeSummary> fresh) {
+        if (!current.keySet().equals(fresh.keySet())) {
+            return false;
+        }
+        for (Map.Entry<Long, TeamAgeSummary> entry : fresh.entrySet()) {
+            if (!current.get(entry.getKey()).sameAs(entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean servable() {
+        return ready && !changeTracker.hasPendingChanges(TableVersions.MEMBER, TableVersions.TEAM);
+    }
+
+    /**
+     * select team.id, team.name, member.age, count(member) from team left join member group by team.id, team.name, member.age
+     */
+    private Map<Long, TeamAgeSummary> load() {
+        List<Tuple> rows = rebuildTx.execute(status -> queryFactory
+                .select(team.id, team.name, member.age, member.count())
+                .from(team)
+                .leftJoin(team.members, member)
+                .groupBy(team.id, team.name, member.age)
+                .fetch());
+
+        Map<Long, TeamAgeSummary> fresh = new HashMap<>();
+        for (Tuple row : rows) {
+            TeamAgeSummary summary = fresh.computeIfAbsent(row.get(team.id), id -> new TeamAgeSummary(id, row.get(team.name)));
+            Integer age = row.get(member.age);
+            Long members = row.get(member.count());
+            if (age != null && members != null && members > 0) {
+                summary.add(age, members);
+            }
+        }
+        return fresh;
+    }
+
+    private void onCommit(List<EntityChange> changes) {
+        boolean rebuild = false;
+        lock.writeLock().lock();
+        try {
+            for (EntityChange change : changes) {
+                if (!change.isOf(Member.class) && !change.isOf(Team.class)) {
+                    continue;
+                }
+                if (!apply(summaries, change)) {
+                    rebuild = true;
+                }
+                if (rebuilding) {
+                    changedDuringRebuild = true;
+                }
+            }
+            if (rebuild) {
+                /* 구성 전 (bootstrap 을 끈 경우 등) 이면 예약하지 않음, 구성 중이면 끝난 뒤 다시 예약됨 */
+                rebuild = ready;
+                ready = false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (rebuild) {
+            /* 재구성이 끝날 때까지 조회는 group by 로 대체 */
+            scheduleRebuild();
+        }
+    }
+
+    /**
+     * @return false 이면 변경 내용만으로 반영할 수 없음 (전체 재구성 필요)
+     */
+    private static boolean apply(Map<Long, TeamAgeSummary> target, EntityChange change) {
+        if (change.getType() == EntityChange.Type.BULK) {
+            return false;
+        }
+        if (change.isOf(Team.class)) {
+            Long teamId = (Long) change.getId();
+            switch (change.getType()) {
+                case INSERT:
+                    target.putIfAbsent(teamId, new TeamAgeSummary(teamId, (String) change.getState().get("name")));
+                    break;
+                case UPDATE:
+                    TeamAgeSummary summary = target.get(teamId);
+                    if (summary != null) {
+                        summary.rename((String) change.getState().get("name"));
+                    }
+                    break;
+                case DELETE:
+                    target.remove(teamId);
+                    break;
+                default:
+            }
+            return true;
+        }
+
+        Map<String, Object> before = change.getPreviousState();
+        Map<String, Object> after = change.getState();
+        switch (change.getType()) {
+            case INSERT:
+                addMember(target, after);
+                return true;
+            case UPDATE:
+                if (before.isEmpty()) {
+                    /* 변경 전 값이 없는 update (detached merge 등) */
+                    return false;
+                }
+                if (!Objects.equals(teamId(before.get("team")), teamId(after.get("team")))
+                        || !Objects.equals(before.get("age"), after.get("age"))) {
+                    removeMember(target, before);
+                    addMember(target, after);
+                }
+                return true;
+            case DELETE:
+                removeMember(target, before);
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    private static void addMember(Map<Long, TeamAgeSummary> target, Map<String, Object> state) {
+        TeamAgeSummary summary = target.get(teamId(state.get("team")));
+        if (summary != null) {
+            summary.add((Integer) state.get("age"), 1);
+        }
+    }
+
+    private static void removeMember(Map<Long, TeamAgeSummary> target, Map<String, Object> state) {
+        TeamAgeSummary summary = target.get(teamId(state.get("team")));
+        if (summary != null) {
+            summary.remove((Integer) state.get("age"));
+        }
+    }
+
+    /**
+     * member.team 은 proxy 일 수 있으므로 초기화하지 않고 id 만 꺼낸다.
+     */
+    private static Long teamId(Object team) {
+        if (team instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+        }
+        return team == null ? null : ((Team) team).getId();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("team.statistics.reconcile")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static List<TeamStatisticsDto> toDtos(Map<Long, TeamAgeSummary> summaries) {
+        List<TeamStatisticsDto> result = new ArrayList<>(summaries.size());
+        for (TeamAgeSummary summary : summaries.values()) {
+            result.add(summary.toDto());
+        }
+        result.sort(BY_TEAM_NAME);
+        return result;
+    }
+}
@@ -0,0 +1,36 @@
+package study.querydsl.sql;
+
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.function.Supplier;
+
+/**
+ * querydsl-sql query 가 JPA 와 같은 transaction, 같은 JDBC connection 을 쓰도록 연결<br/>
+ * : JpaTransactionManager 가 transaction 의 connection 을 DataSource 에 bind 해 두므로 {@link DataSourceUtils} 로 꺼낸다.<br/>
+ * : 아직 flush 되지 않은 JPA 변경이 SQL query 에 보이도록 query 생성 전에 flush (read-only transaction 제외)<br/>
+ * : transaction 밖에서는 connection 을 닫아 줄 주체가 없으므로 사용 불가
+ */
+public class JpaSyncConnectionProvider implements Supplier<Connection> {
+    private final DataSource dataSource;
+    private final EntityManager em;
+
+    public JpaSyncConnectionProvider(DataSource dataSource, EntityManager em) {
+        this.dataSource = dataSource;
+        this.em = em;
+    }
+
+    @Override
+    public Connection get() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("querydsl-sql query requires an active transaction");
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() && em.isJoinedToTransaction()) {
+            em.flush();
+        }
+        return DataSourceUtils.getConnection(dataSource);
+    }
+}
@@ -0,0 +1,80 @@
+package study.querydsl.sql;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.Statement;
+
+/**
+ * window function (count(*) over ()) 사용 가능 여부<br/>
+ * : member-search.paging = window | count | auto (기본)<br/>
+ * : auto 는 시작 시 (ApplicationReadyEvent) transaction 과 무관한 connection 으로 1번 실행해 보고 결정
+ * (실패한 SQL 이 transaction 을 abort 시키는 DB 도 있으므로 조회 transaction 안에서 시험하지 않고,
+ * 조회 중에 connection 을 하나 더 잡지도 않는다.)<br/>
+ * : 문법 오류 / 미지원 예외만 "지원 안 함" 으로 확정; 그 외 오류 (connection 부족 등) 는 미결정으로 두고 주기적으로 다시 시험 ({@link #retryProbe()})<br/>
+ * : 결정 전에는 count query 사용<br/>
+ * : 사용 중 SQL 오류는 대체하지 않고 호출한 쪽에 그대로 전달 (같은 이유로 실패한 transaction 에서 다시 조회할 수 없음)
+ */
+@Slf4j
+@Component
+public class WindowFunctionSupport {
+    static final String PROBE_SQL = "select count(*) over () from team where 1 = 0";
+
+    private final DataSource dataSource;
+    private volatile Boolean available;
+
+    public WindowFunctionSupport(DataSource dataSource, @Value("${member-search.paging:auto}") String mode) {
+        this.dataSource = dataSource;
+        if ("window".equals(mode)) {
+            available = true;
+        } else if ("count".equals(mode)) {
+            available = false;
+        } else if (!"auto".equals(mode)) {
+            throw new IllegalArgumentException("member-search.paging must be one of auto, window, count: " + mode);
+        }
+    }
+
+    public boolean isAvailable() {
+        return Boolean.TRUE.equals(available);
+    }
+
+    /**
+     * 이미 결정되었으면 실행하지 않는다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void probe() {
+        if (available != null) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeQuery(PROBE_SQL).close();
+            available = true;
+        } catch (SQLSyntaxErrorException | SQLFeatureNotSupportedException e) {
+            log.info("window functions not supported ({}); paging uses count query", e.getMessage());
+            available = false;
+        } catch (SQLException e) {
+            log.warn("window function probe failed ({}); paging uses count query until the next probe", e.getMessage());
+        }
+    }
+
+    /**
+     * 시작 시 probe 가 결정하지 못한 경우만 다시 시험 (결정된 뒤에는 바로 반환)
+     */
+    @Scheduled(fixedDelayString = "${member-search.paging-probe.fixed-delay:60000}",
+            initialDelayString = "${member-search.paging-probe.fixed-delay:60000}")
+    public void retryProbe() {
+        if (available == null) {
+            probe();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package study.querydsl.statistics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * GET /actuator/hibernatestats : summary, slowest, mostFrequent<br/>
+ * DELETE /actuator/hibernatestats : statistics 초기화 (회귀 측정 전 baseline 리셋)
+ */
+@Component
+@Endpoint(id = "hibernatestats")
+@RequiredArgsConstructor
+public class HibernateStatisticsEndpoint {
+    private final HibernateStatisticsService statisticsService;
+
+    @Value("${statistics.report.limit:5}")
+    private int limit;
+
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statisticsService.isEnabled());
+        result.put("summary", statisticsService.summary());
+        result.put("slowest", statisticsService.slowest(limit));
+        result.put("mostFrequent", statisticsService.mostFrequent(limit));
+        return result;
+    }
+
+    @DeleteOperation
+    public void clear() {
+        statisticsService.clear();
+    }
+}
@@ -0,0 +1,103 @@
+package study.querydsl.statistics;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.QueryStatisticsDto;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * {@link SessionFactory} statistics 조회<br/>
+ * : hibernate.generate_statistics: true 설정이 필요<br/>
+ * : query 목록에는 querydsl-sql 로 실행한 query ({@link SqlQueryStatistics}) 도 함께 나온다.
+ */
+@Component
+public class HibernateStatisticsService {
+    private final Statistics statistics;
+    private final SqlQueryStatistics sqlQueryStatistics;
+
+    public HibernateStatisticsService(EntityManagerFactory emf, SqlQueryStatistics sqlQueryStatistics) {
+        this.statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        this.sqlQueryStatistics = sqlQueryStatistics;
+    }
+
+    public boolean isEnabled() {
+        return statistics.isStatisticsEnabled();
+    }
+
+    public Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("queryExecutionCount", statistics.getQueryExecutionCount());
+        summary.put("queryExecutionMaxTime", statistics.getQueryExecutionMaxTime());
+        summary.put("queryExecutionMaxTimeQueryString", statistics.getQueryExecutionMaxTimeQueryString());
+        summary.put("prepareStatementCount", statistics.getPrepareStatementCount());
+        summary.put("entityLoadCount", statistics.getEntityLoadCount());
+        summary.put("entityFetchCount", statistics.getEntityFetchCount());
+        summary.put("entityInsertCount", statistics.getEntityInsertCount());
+        summary.put("entityUpdateCount", statistics.getEntityUpdateCount());
+        summary.put("entityDeleteCount", statistics.getEntityDeleteCount());
+        summary.put("collectionFetchCount", statistics.getCollectionFetchCount());
+        summary.put("secondLevelCacheHitCount", statistics.getSecondLevelCacheHitCount());
+        summary.put("secondLevelCacheMissCount", statistics.getSecondLevelCacheMissCount());
+        summary.put("secondLevelCacheHitRatio", ratio(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount()));
+        summary.put("queryCacheHitCount", statistics.getQueryCacheHitCount());
+        summary.put("queryCacheMissCount", statistics.getQueryCacheMissCount());
+        summary.put("queryCacheHitRatio", ratio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()));
+        return summary;
+    }
+
+    /**
+     * 최대 실행시간이 긴 순서
+     */
+    public List<QueryStatisticsDto> slowest(int limit) {
+        return queries(Comparator.comparingLong(QueryStatisticsDto::getExecutionMaxTime).reversed(), limit);
+    }
+
+    /**
+     * 실행횟수가 많은 순서
+     */
+    public List<QueryStatisticsDto> mostFrequent(int limit) {
+        return queries(Comparator.comparingLong(QueryStatisticsDto::getExecutionCount).reversed(), limit);
+    }
+
+    public void clear() {
+        statistics.clear();
+        sqlQueryStatistics.clear();
+        QueryOrigins.resetSampling();
+    }
+
+    private List<QueryStatisticsDto> queries(Comparator<QueryStatisticsDto> order, int limit) {
+        return Stream.concat(Arrays.stream(statistics.getQueries()).map(this::toDto), sqlQueryStatistics.queries().stream())
+                .filter(dto -> dto.getExecutionCount() > 0)
+                .sorted(order)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private QueryStatisticsDto toDto(String query) {
+        QueryStatistics queryStatistics = statistics.getQueryStatistics(query);
+        return QueryStatisticsDto.builder()
+                .query(query)
+                .origin(QueryOrigins.originOf(query))
+                .executionCount(queryStatistics.getExecutionCount())
+                .executionRowCount(queryStatistics.getExecutionRowCount())
+                .executionMaxTime(queryStatistics.getExecutionMaxTime())
+                .executionAvgTime(queryStatistics.getExecutionAvgTime())
+                .executionTotalTime(queryStatistics.getExecutionTotalTime())
+                .build();
+    }
+
+    private double ratio(long hit, long miss) {
+        long total = hit + miss;
+        return total == 0 ? 0 : (double) hit / total;
+    }
+}
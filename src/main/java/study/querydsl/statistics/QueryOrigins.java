@@ -0,0 +1,115 @@
+package study.querydsl.statistics;
+
+import com.querydsl.core.QueryFlag;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.jpa.impl.JPADeleteClause;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import com.querydsl.sql.SQLQuery;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.query.Query;
+
+import javax.persistence.TypedQuery;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Querydsl 이 만든 JPQL 에 호출 위치(repository method) 를 태깅<br/>
+ * : use_sql_comments 가 켜져 있으면 SQL 로그에 origin 이 comment 로 출력된다.<br/>
+ * : {@link HibernateStatisticsService} 는 JPQL 로 origin 을 역추적하여 report 에 함께 출력한다.<br/>
+ * : JPQL 문자열을 만드는 비용 (toString) 때문에 origin 마다 처음 1번과 이후 REGISTER_EVERY 번에 1번만 등록한다.
+ * (조건 모양이 여러 개인 origin 도 자주 실행되는 모양은 곧 등록되고, hint 는 매번 붙는다)<br/>
+ * <p>
+ * bulk DML ({@link JPAUpdateClause}, {@link JPADeleteClause}) 은 query hint 를 지원하지 않으므로 JPQL -> origin 등록만 한다.<br/>
+ * querydsl-sql ({@link SQLQuery}) 은 SQL 앞에 comment 로 붙이고, {@link SqlQueryStatistics} 가 comment 에서 origin 을 읽는다.
+ */
+public final class QueryOrigins {
+    private static final String SQL_COMMENT_START = "/* ";
+    private static final String SQL_COMMENT_END = " */";
+    private static final int REGISTER_EVERY = 64;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Map<String, String> ORIGINS = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicLong> CALLS = new ConcurrentHashMap<>();
+
+    private QueryOrigins() {
+    }
+
+    /**
+     * 쿼리 조립이 끝난 뒤(fetch 직전) 호출해야 JPQL 이 statistics 의 query string 과 일치한다.
+     */
+    public static <T> JPAQuery<T> tag(JPAQuery<T> query, String origin) {
+        query.setHint(QueryHints.COMMENT, origin);
+        if (shouldRegister(origin)) {
+            register(query.toString(), origin);
+        }
+        return query;
+    }
+
+    /**
+     * 문자열 JPQL 로 만든 query (em.createQuery)
+     */
+    public static <T> TypedQuery<T> tag(TypedQuery<T> query, String origin) {
+        query.setHint(QueryHints.COMMENT, origin);
+        if (shouldRegister(origin)) {
+            register(query.unwrap(Query.class).getQueryString(), origin);
+        }
+        return query;
+    }
+
+    public static JPAUpdateClause tag(JPAUpdateClause update, String origin) {
+        if (shouldRegister(origin)) {
+            register(update.toString(), origin);
+        }
+        return update;
+    }
+
+    public static JPADeleteClause tag(JPADeleteClause delete, String origin) {
+        if (shouldRegister(origin)) {
+            register(delete.toString(), origin);
+        }
+        return delete;
+    }
+
+    public static <T> SQLQuery<T> tag(SQLQuery<T> query, String origin) {
+        query.addFlag(QueryFlag.Position.START, SQL_COMMENT_START + origin + SQL_COMMENT_END + " ");
+        return query;
+    }
+
+    public static String originOf(String jpql) {
+        return ORIGINS.get(normalize(jpql));
+    }
+
+    static String originOf(QueryMetadata metadata) {
+        for (QueryFlag flag : metadata.getFlags()) {
+            if (flag.getPosition() != QueryFlag.Position.START) {
+                continue;
+            }
+            String text = flag.getFlag().toString().trim();
+            if (text.startsWith(SQL_COMMENT_START) && text.endsWith(SQL_COMMENT_END)) {
+                return text.substring(SQL_COMMENT_START.length(), text.length() - SQL_COMMENT_END.length());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * statistics 를 초기화할 때 같이 호출; 다음 실행부터 다시 origin 마다 처음 1번은 등록
+     */
+    static void resetSampling() {
+        CALLS.clear();
+    }
+
+    private static boolean shouldRegister(String origin) {
+        return CALLS.computeIfAbsent(origin, o -> new AtomicLong()).getAndIncrement() % REGISTER_EVERY == 0;
+    }
+
+    private static void register(String jpql, String origin) {
+        ORIGINS.putIfAbsent(normalize(jpql), origin);
+    }
+
+    private static String normalize(String jpql) {
+        return WHITESPACE.matcher(jpql.trim()).replaceAll(" ");
+    }
+}
@@ -0,0 +1,50 @@
+package study.querydsl.statistics;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.QueryStatisticsDto;
+
+import java.util.List;
+
+/**
+ * statistics.report.fixed-delay 주기로 slowest / most frequent JPQL 을 로그로 출력
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SlowQueryReporter {
+    private final HibernateStatisticsService statisticsService;
+
+    @Value("${statistics.report.limit:5}")
+    private int limit;
+
+    @Scheduled(fixedDelayString = "${statistics.report.fixed-delay:60000}",
+            initialDelayString = "${statistics.report.fixed-delay:60000}")
+    public void report() {
+        if (!statisticsService.isEnabled()) {
+            return;
+        }
+        List<QueryStatisticsDto> slowest = statisticsService.slowest(limit);
+        if (slowest.isEmpty()) {
+            return;
+        }
+        log.info("==== slowest queries (top {}) ====", limit);
+        slowest.forEach(this::print);
+        log.info("==== most frequent queries (top {}) ====", limit);
+        statisticsService.mostFrequent(limit).forEach(this::print);
+    }
+
+    private void print(QueryStatisticsDto dto) {
+        log.info("[{}] count={} rows={} max={}ms avg={}ms total={}ms : {}",
+                dto.getOrigin() == null ? "-" : dto.getOrigin(),
+                dto.getExecutionCount(),
+                dto.getExecutionRowCount(),
+                dto.getExecutionMaxTime(),
+                dto.getExecutionAvgTime(),
+                dto.getExecutionTotalTime(),
+                dto.getQuery());
+    }
+}
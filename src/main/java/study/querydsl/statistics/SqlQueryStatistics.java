@@ -0,0 +1,84 @@
+package study.querydsl.statistics;
+
+import com.querydsl.sql.SQLBaseListener;
+import com.querydsl.sql.SQLListenerContext;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.QueryStatisticsDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * querydsl-sql 로 실행한 query 의 실행 통계 (Hibernate statistics 에는 잡히지 않음)<br/>
+ * : {@link com.querydsl.sql.Configuration} listener 로 등록하여 SQL 별 실행횟수, 소요시간을 모은다.<br/>
+ * : origin 은 {@link QueryOrigins#tag(com.querydsl.sql.SQLQuery, String)} 이 붙인 comment 로 구분<br/>
+ * : row 수는 ResultSet 을 감싸지 않고는 알 수 없으므로 집계하지 않는다. (executionRowCount = 0)
+ */
+@Component
+public class SqlQueryStatistics extends SQLBaseListener {
+    private static final String STARTED_AT = SqlQueryStatistics.class.getName() + ".startedAt";
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public void start(SQLListenerContext context) {
+        context.setData(STARTED_AT, System.nanoTime());
+    }
+
+    @Override
+    public void end(SQLListenerContext context) {
+        Long startedAt = (Long) context.getData(STARTED_AT);
+        String sql = context.getSQL();
+        if (startedAt == null || sql == null) {
+            return;
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        entries.computeIfAbsent(sql, s -> new Entry(QueryOrigins.originOf(context.getMetadata())))
+                .record(elapsed);
+    }
+
+    public List<QueryStatisticsDto> queries() {
+        List<QueryStatisticsDto> result = new ArrayList<>(entries.size());
+        entries.forEach((sql, entry) -> result.add(entry.toDto(sql)));
+        return result;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private static class Entry {
+        private final String origin;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        private Entry(String origin) {
+            this.origin = origin;
+        }
+
+        private void record(long elapsed) {
+            count.increment();
+            total.add(elapsed);
+            max.accumulate(elapsed);
+        }
+
+        private QueryStatisticsDto toDto(String sql) {
+            long executions = count.sum();
+            long totalTime = total.sum();
+            return QueryStatisticsDto.builder()
+                    .query(sql)
+                    .origin(origin)
+                    .executionCount(executions)
+                    .executionMaxTime(max.get())
+                    .executionAvgTime(executions == 0 ? 0 : totalTime / executions)
+                    .executionTotalTime(totalTime)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+-- MemberSearchCondition 검색 조건(usernameEq, teamNameEq, ageGoe, ageLoe) 용 index
+-- : username 단독 조건은 idx_member_username_age 의 leading column 으로 처리
+-- : teamNameEq 는 team.name -> team.id -> member.team_id 순서로 join 되므로 team_id 를 leading column 으로 둠
+create index if not exists idx_member_username_age on member (username, age);
+create index if not exists idx_member_age on member (age);
+create index if not exists idx_member_team_id_age on member (team_id, age);
+create index if not exists idx_team_name on team (name);
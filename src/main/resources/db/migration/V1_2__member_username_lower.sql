@@ -0,0 +1,6 @@
+-- 대소문자 무시 username 검색 (UsernameMatch + ignoreCase) 용 column
+-- : where lower(username) = ? 는 index 를 못 타므로 소문자 값을 column 으로 저장하고 index 를 건다.
+-- : 값은 Member @PrePersist/@PreUpdate, BulkUpdateRepository 가 username 과 함께 갱신
+alter table member add column if not exists username_lower varchar(255);
+update member set username_lower = lower(username);
+create index if not exists idx_member_username_lower on member (username_lower);
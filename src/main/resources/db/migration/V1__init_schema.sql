@@ -0,0 +1,25 @@
+-- @GeneratedValue(strategy = AUTO) -> hibernate_sequence
+create sequence if not exists hibernate_sequence start with 1 increment by 1;
+
+create table hello
+(
+    id bigint not null,
+    constraint pk_hello primary key (id)
+);
+
+create table team
+(
+    id   bigint not null,
+    name varchar(255),
+    constraint pk_team primary key (id)
+);
+
+create table member
+(
+    member_id bigint  not null,
+    age       integer not null,
+    username  varchar(255),
+    team_id   bigint,
+    constraint pk_member primary key (member_id),
+    constraint fk_member_team foreign key (team_id) references team (id)
+);
@@ -0,0 +1,117 @@
+package study.querydsl.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.change.TableVersions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 여러 thread 에서 동시에 호출하므로 DB 를 쓰지 않는 loader 로 검증
+ */
+@SpringBootTest
+public class RequestCoalescerTest {
+    private static final int THREADS = 8;
+
+    @Autowired
+    private RequestCoalescer coalescer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void coalesceTest() throws Exception {
+        //given
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        //when
+        List<Object> results = runConcurrently("coalesce-test", () -> {
+            executions.incrementAndGet();
+            await(release);
+            return new Object();
+        }, release);
+
+        //then
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(results).allSatisfy(result -> assertThat(result).isSameAs(results.get(0)));
+        assertThat(count("coalesce-test", "executed")).isEqualTo(1);
+        assertThat(count("coalesce-test", "shared")).isEqualTo(THREADS - 1);
+
+        //when: 실행이 끝난 key 는 다시 실행
+        coalescer.execute("coalesce-test", "key", () -> executions.incrementAndGet(), TableVersions.MEMBER);
+
+        //then
+        assertThat(executions.get()).isEqualTo(2);
+    }
+
+    @Test
+    void failureSharedTest() throws Exception {
+        //given
+        CountDownLatch release = new CountDownLatch(1);
+
+        //when
+        List<Object> results = runConcurrently("failure-test", () -> {
+            await(release);
+            throw new IllegalStateException("query failed");
+        }, release);
+
+        //then: 기다리던 호출도 같은 예외를 받는다.
+        assertThat(results).hasSize(THREADS)
+                .allSatisfy(result -> assertThat(result).isInstanceOf(IllegalStateException.class));
+    }
+
+    /**
+     * 모든 thread 가 loader 실행 또는 대기에 들어간 뒤 release
+     */
+    private List<Object> runConcurrently(String name, Supplier<Object> loader, CountDownLatch release) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch started = new CountDownLatch(THREADS);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                started.countDown();
+                return coalescer.execute(name, "key", loader, TableVersions.MEMBER);
+            }));
+        }
+        started.await(5, TimeUnit.SECONDS);
+        Thread.sleep(200);
+        release.countDown();
+
+        List<Object> results = new ArrayList<>();
+        for (Future<Object> future : futures) {
+            try {
+                results.add(future.get(5, TimeUnit.SECONDS));
+            } catch (ExecutionException e) {
+                results.add(e.getCause());
+            }
+        }
+        executor.shutdown();
+        return results;
+    }
+
+    private double count(String name, String result) {
+        return meterRegistry.counter("repository.coalescing", "name", name, "result", result).count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
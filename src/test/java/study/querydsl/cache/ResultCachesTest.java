@@ -0,0 +1,96 @@
+package study.querydsl.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.change.TableVersions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * test transaction 밖(여러 thread) 에서 동작을 확인하므로 DB 를 쓰지 않는 loader 로 검증
+ */
+@SpringBootTest
+public class ResultCachesTest {
+    private static final int THREADS = 16;
+
+    @Autowired
+    private ResultCaches resultCaches;
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    /**
+     * 같은 key 동시 miss -> loader 1회 실행, 나머지는 같은 결과를 받는다. (thundering herd 억제)
+     */
+    @Test
+    void singleFlightTest() throws Exception {
+        //given
+        ResultCache<List<String>> cache = resultCaches.cache("single-flight-test", TableVersions.MEMBER);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        //when
+        List<Future<List<String>>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return cache.get("dashboard", () -> {
+                    loads.incrementAndGet();
+                    sleep(200);
+                    return Collections.singletonList("member1");
+                });
+            }));
+        }
+        start.countDown();
+        List<List<String>> results = new ArrayList<>();
+        for (Future<List<String>> future : futures) {
+            results.add(future.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        //then
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(results).allSatisfy(result -> assertThat(result).isSameAs(results.get(0)));
+    }
+
+    /**
+     * table version 이 바뀌면 이전 결과를 쓰지 않는다.
+     */
+    @Test
+    void versionInvalidationTest() {
+        //given
+        ResultCache<String> cache = resultCaches.cache("version-test", TableVersions.TEAM);
+        AtomicInteger loads = new AtomicInteger();
+
+        //when
+        String first = cache.get("key", () -> "v" + loads.incrementAndGet());
+        String cached = cache.get("key", () -> "v" + loads.incrementAndGet());
+        tableVersions.bump(TableVersions.TEAM);
+        String reloaded = cache.get("key", () -> "v" + loads.incrementAndGet());
+
+        //then
+        assertThat(first).isEqualTo("v1");
+        assertThat(cached).isEqualTo("v1");
+        assertThat(reloaded).isEqualTo("v2");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package study.querydsl.change;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * commit 이후에만 version 이 증가하는지 확인해야 하므로 test transaction(rollback) 을 쓰지 않는다.<br/>
+ * : 직접 commit 한 데이터는 {@link #tearDown()} 에서 삭제
+ */
+@SpringBootTest
+public class ChangeTrackerTest {
+    private static final String TEAM_NAME = "changeTrackerTeam";
+
+    @Autowired
+    private ChangeTracker changeTracker;
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+    private final List<EntityChange> received = new CopyOnWriteArrayList<>();
+    private final ChangeListener listener = received::addAll;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        changeTracker.subscribe(listener);
+    }
+
+    @AfterEach
+    void tearDown() {
+        changeTracker.unsubscribe(listener);
+        tx.executeWithoutResult(status -> em.createQuery("delete from Team t where t.name = :name")
+                .setParameter("name", TEAM_NAME)
+                .executeUpdate());
+    }
+
+    @Test
+    void afterCommitTest() {
+        //given
+        long before = tableVersions.version(TableVersions.TEAM);
+
+        //when
+        tx.executeWithoutResult(status -> {
+            em.persist(Team.builder().name(TEAM_NAME).build());
+            em.flush();
+
+            //then: commit 전
+            assertThat(changeTracker.hasPendingChanges(TableVersions.TEAM)).isTrue();
+            assertThat(changeTracker.hasPendingChanges(TableVersions.MEMBER)).isFalse();
+            assertThat(tableVersions.version(TableVersions.TEAM)).isEqualTo(before);
+            assertThat(received).isEmpty();
+        });
+
+        //then: commit 후
+        assertThat(tableVersions.version(TableVersions.TEAM)).isEqualTo(before + 1);
+        assertThat(received).hasSize(1);
+        EntityChange change = received.get(0);
+        assertThat(change.getType()).isEqualTo(EntityChange.Type.INSERT);
+        assertThat(change.isOf(Team.class)).isTrue();
+        assertThat(change.getState().get("name")).isEqualTo(TEAM_NAME);
+    }
+
+    @Test
+    void rollbackTest() {
+        //given
+        long before = tableVersions.version(TableVersions.TEAM);
+
+        //when
+        tx.executeWithoutResult(status -> {
+            em.persist(Team.builder().name(TEAM_NAME).build());
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        //then
+        assertThat(tableVersions.version(TableVersions.TEAM)).isEqualTo(before);
+        assertThat(received).isEmpty();
+        assertThat(changeTracker.hasPendingChanges(TableVersions.TEAM)).isFalse();
+    }
+
+    /**
+     * persist 후 flush 전이면 table 구분 없이 commit 전 변경으로 본다.
+     */
+    @Test
+    void unflushedTest() {
+        tx.executeWithoutResult(status -> {
+            //given
+            assertThat(changeTracker.hasPendingChanges(TableVersions.MEMBER)).isFalse();
+
+            //when
+            em.persist(Team.builder().name(TEAM_NAME).build());
+
+            //then
+            assertThat(changeTracker.hasPendingChanges(TableVersions.MEMBER)).isTrue();
+        });
+    }
+
+    /**
+     * 안쪽 REQUIRES_NEW transaction 의 변경은 안쪽 commit 시 반영 (바깥 transaction 이 rollback 되어도 유지)
+     */
+    @Test
+    void requiresNewTest() {
+        //given
+        long before = tableVersions.version(TableVersions.TEAM);
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        //when
+        tx.executeWithoutResult(status -> {
+            em.persist(Team.builder().name(TEAM_NAME).build());
+            em.flush();
+            requiresNew.executeWithoutResult(inner -> em.persist(Team.builder().name(TEAM_NAME).build()));
+
+            //then: 안쪽 commit 후, 바깥 transaction 의 변경은 그대로 commit 전
+            assertThat(tableVersions.version(TableVersions.TEAM)).isEqualTo(before + 1);
+            assertThat(received).hasSize(1);
+            assertThat(changeTracker.hasPendingChanges(TableVersions.TEAM)).isTrue();
+            status.setRollbackOnly();
+        });
+
+        //then
+        assertThat(tableVersions.version(TableVersions.TEAM)).isEqualTo(before + 1);
+        assertThat(received).hasSize(1);
+    }
+}
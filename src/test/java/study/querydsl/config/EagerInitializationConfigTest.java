@@ -0,0 +1,26 @@
+package study.querydsl.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * test profile 은 lazy-initialization 이지만 ChangeTracker 구독, @Scheduled bean 은 주입받지 않아도 생성되어 있어야 한다.
+ */
+@SpringBootTest
+public class EagerInitializationConfigTest {
+
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Test
+    void eagerBeansTest() {
+        assertThat(beanFactory.containsSingleton("usernameIndex")).isTrue();
+        assertThat(beanFactory.containsSingleton("teamStatisticsService")).isTrue();
+        assertThat(beanFactory.containsSingleton("resultCaches")).isTrue();
+        assertThat(beanFactory.containsSingleton("slowQueryReporter")).isTrue();
+    }
+}
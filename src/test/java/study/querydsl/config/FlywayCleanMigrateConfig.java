@@ -0,0 +1,24 @@
+package study.querydsl.config;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * test profile 은 local profile 과 같은 DB(~/querydsl) 를 사용하므로,
+ * InitMember 등이 남긴 데이터를 지우기 위해 context 시작시 clean 후 migrate<br/>
+ * : 기존 ddl-auto: create 와 같은 동작
+ */
+@Profile("test")
+@Configuration
+public class FlywayCleanMigrateConfig {
+
+    @Bean
+    public FlywayMigrationStrategy cleanMigrateStrategy() {
+        return flyway -> {
+            flyway.clean();
+            flyway.migrate();
+        };
+    }
+}
@@ -1,35 +1,58 @@
 package study.querydsl.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Profile;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.web.context.WebApplicationContext;
+import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
-import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.study.BulkUpdateRepository;
+import study.querydsl.service.MemberSearchStreamService;
+import study.querydsl.support.DatasetFixtures;
+import study.querydsl.support.TestDataset;
 
 import javax.persistence.EntityManager;
-
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -39,7 +62,6 @@ import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
 
 @SpringBootTest
-@AutoConfigureMockMvc
 public class MemberControllerTest {
     private MockMvc mvc;
 
@@ -47,11 +69,29 @@ public class MemberControllerTest {
     private WebApplicationContext context;
 
     @Autowired
-    private EntityManager em;
+    private DatasetFixtures fixtures;
 
     @Autowired
     private JPAQueryFactory queryFactory;
 
+    @Autowired
+    private BulkUpdateRepository bulkUpdateRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MemberController memberController;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MemberSearchStreamService memberSearchStreamService;
+
     @BeforeEach
     void setUp() {
         mvc = MockMvcBuilders.webAppContextSetup(context).build();
@@ -116,21 +156,204 @@ public class MemberControllerTest {
                 .andExpect(content().json(expectedJson));
     }
 
-    private void init() {
-        Team teamA = Team.builder().name("teamA").build();
-        Team teamB = Team.builder().name("teamB").build();
-
-        em.persist(teamA);
-        em.persist(teamB);
-
-        for (int i = 0; i < 100; i++) {
-            Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-            em.persist(Member.builder()
-                    .username("member" + i)
-                    .age(i)
-                    .team(selectedTeam)
-                    .build());
+    /**
+     * Slice 응답; totalElements, totalPages 없이 last 로 다음 page 여부만
+     */
+    @Test
+    @Transactional
+    void initV3Test() throws Exception {
+        //given
+        LinkedMultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("teamName", "teamB");
+        params.add("ageGoe", "10");
+        params.add("ageLoe", "30");
+        params.add("size", "5");
+        params.add("page", "1");
+
+        //when
+        ResultActions perform = mvc.perform(get("/v3/members").params(params));
+
+        //then
+        perform.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].username").value(Matchers.contains(
+                        "member21", "member23", "member25", "member27", "member29")))
+                .andExpect(jsonPath("$.last").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void streamV2Test() throws Exception {
+        //given
+        LinkedMultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("ageGoe", "10");
+        params.add("size", "5");
+        params.add("page", "1");
+
+        List<MemberTeamDto> results = queryFactory
+                .select(new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(member.age.goe(10))
+                .offset(5).limit(5)
+                .orderBy(member.id.asc())
+                .fetch();
+        Long total = queryFactory
+                .select(member.count())
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(member.age.goe(10))
+                .fetchOne();
+        Page<MemberTeamDto> page = new PageImpl<>(results, PageRequest.of(1, 5), total);
+
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("content", results);
+        expected.put("totalElements", page.getTotalElements());
+        expected.put("totalPages", page.getTotalPages());
+        expected.put("number", page.getNumber());
+        expected.put("size", page.getSize());
+        expected.put("numberOfElements", page.getNumberOfElements());
+        expected.put("first", page.isFirst());
+        expected.put("last", page.isLast());
+        expected.put("empty", page.isEmpty());
+        String expectedJson = new ObjectMapper().writeValueAsString(expected);
+
+        //when
+        ResultActions perform = mvc.perform(get("/v2/members/stream").params(params));
+
+        //then
+        perform.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().json(expectedJson, true));
+    }
+
+    /**
+     * 첫 row 출력 후 timeout -> 배열/객체를 닫지 않은 잘린 JSON (row 가 빠진 정상 page 로 보이면 안 됨)
+     */
+    @Test
+    @Transactional
+    void streamV2TimeoutTest() throws Exception {
+        //given
+        MemberSearchCondition condition = MemberSearchCondition.builder().ageGoe(10).build();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Object timeout = ReflectionTestUtils.getField(memberSearchStreamService, "timeout");
+        ReflectionTestUtils.setField(memberSearchStreamService, "timeout", Duration.ZERO);
+
+        //when
+        try {
+            assertThatThrownBy(() -> memberController.searchMembersV2Stream(condition, PageRequest.of(0, 5), response))
+                    .isInstanceOf(QueryTimeoutException.class);
+        } finally {
+            ReflectionTestUtils.setField(memberSearchStreamService, "timeout", timeout);
+        }
+
+        //then
+        String body = response.getContentAsString();
+        assertThat(body).startsWith("{\"content\":[{");
+        assertThatThrownBy(() -> new ObjectMapper().readTree(body))
+                .isInstanceOf(JsonProcessingException.class);
+    }
+
+    @Test
+    @Transactional
+    void binaryV2Test() throws Exception {
+        //given
+        LinkedMultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("ageGoe", "10");
+        params.add("size", "20");
+        params.add("page", "0");
+        String json = mvc.perform(get("/v2/members").params(params))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode expected = new ObjectMapper().readTree(json);
+
+        //when
+        MvcResult smile = mvc.perform(get("/v2/members").params(params).accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-jackson-smile"))
+                .andReturn();
+        MvcResult cbor = mvc.perform(get("/v2/members").params(params).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        //then
+        byte[] smileBody = smile.getResponse().getContentAsByteArray();
+        byte[] cborBody = cbor.getResponse().getContentAsByteArray();
+        assertThat(new ObjectMapper(new SmileFactory()).readTree(smileBody)).isEqualTo(expected);
+        assertThat(new ObjectMapper(new CBORFactory()).readTree(cborBody)).isEqualTo(expected);
+        assertThat(smileBody.length).isLessThan(json.getBytes().length);
+        assertThat(cborBody.length).isLessThan(json.getBytes().length);
+    }
+
+    @Test
+    @Transactional
+    void etagV2Test() throws Exception {
+        //given
+        LinkedMultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("teamName", "teamA");
+        params.add("size", "5");
+        params.add("page", "0");
+        String etag = mvc.perform(get("/v2/members").params(params))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        double notModified = notModifiedCount();
+
+        //when, then: 같은 조건 + If-None-Match -> DB 조회 없이 304
+        mvc.perform(get("/v2/members").params(params).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertThat(notModifiedCount()).isEqualTo(notModified + 1);
+
+        //when, then: 같은 transaction 에서 bulk update 후 -> commit 전 변경이 있으므로 cache, ETag 없이 200
+        bulkUpdateRepository.bulkAddAge(1);
+        mvc.perform(get("/v2/members").params(params).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    /**
+     * 다른 transaction 에서 commit 된 변경 -> version 이 바뀌어 200 + 새 ETag
+     */
+    @Test
+    @Transactional
+    void etagV2CommittedChangeTest() throws Exception {
+        //given
+        LinkedMultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("teamName", "teamA");
+        params.add("size", "5");
+        params.add("page", "0");
+        String etag = mvc.perform(get("/v2/members").params(params))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        //when
+        Long teamId = requiresNew.execute(status -> {
+            Team committed = Team.builder().name("etagCommittedTeam").build();
+            em.persist(committed);
+            return committed.getId();
+        });
+
+        //then
+        try {
+            mvc.perform(get("/v2/members").params(params).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isOk())
+                    .andExpect(header().exists(HttpHeaders.ETAG))
+                    .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+        } finally {
+            requiresNew.executeWithoutResult(status -> em.remove(em.find(Team.class, teamId)));
         }
     }
 
+    private double notModifiedCount() {
+        return meterRegistry.counter("member.search.response.cache", "result", "not_modified").count();
+    }
+
+    private void init() {
+        fixtures.load(TestDataset.INIT);
+    }
+
 }
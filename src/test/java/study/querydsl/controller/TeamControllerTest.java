@@ -0,0 +1,46 @@
+package study.querydsl.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+public class TeamControllerTest {
+    private MockMvc mvc;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    /**
+     * 구간 폭이 0 이하이면 500 이 아니라 400 (agePercentile 의 p 범위 검사와 같음)
+     */
+    @Test
+    void ageHistogramBadRequestTest() throws Exception {
+        mvc.perform(get("/v1/teams/ages/histogram").param("bucketWidth", "0"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/v1/teams/ages/histogram").param("bucketWidth", "-10"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/v1/teams/ages/percentile").param("p", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void ageHistogramTest() throws Exception {
+        mvc.perform(get("/v1/teams/ages/histogram").param("bucketWidth", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bucketWidth").isNumber());
+    }
+}
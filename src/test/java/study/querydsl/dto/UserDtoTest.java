@@ -6,11 +6,14 @@ import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.Team;
+import study.querydsl.support.DatasetFixtures;
+import study.querydsl.support.TestDataset;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
@@ -24,6 +27,9 @@ import static study.querydsl.entity.QMember.member;
 @SpringBootTest
 @Transactional
 public class UserDtoTest {
+    @Autowired
+    private DatasetFixtures fixtures;
+
     @PersistenceContext
     private EntityManager em;
 
@@ -40,21 +46,13 @@ public class UserDtoTest {
 
         queryFactory = new JPAQueryFactory(em);
 
-        teamA = Team.builder().name("teamA").build();
-        teamB = Team.builder().name("teamB").build();
-        em.persist(teamA);
-        em.persist(teamB);
-
-        member1 = Member.builder().username("member1").age(10).team(teamA).build();
-        member2 = Member.builder().username("member2").age(20).team(teamA).build();
-        member3 = Member.builder().username("member3").age(30).team(teamB).build();
-        member4 = Member.builder().username("member4").age(40).team(teamB).build();
-        em.persist(member1);
-        em.persist(member2);
-        em.persist(member3);
-        em.persist(member4);
-
-        em.flush();
+        fixtures.load(TestDataset.BASIC);
+        teamA = fixtures.team("teamA");
+        teamB = fixtures.team("teamB");
+        member1 = fixtures.member("member1");
+        member2 = fixtures.member("member2");
+        member3 = fixtures.member("member3");
+        member4 = fixtures.member("member4");
         em.clear();
     }
 
@@ -0,0 +1,96 @@
+package study.querydsl.entity;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.cache.ResultCaches;
+import study.querydsl.change.TableVersions;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.UsernameMatch;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.support.ExecutedSqlCapture;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MemberSearchCondition 조건 조합별 실행계획 확인 (H2 EXPLAIN)<br/>
+ * : search(), searchPage() 가 실제로 실행한 SQL (join, order by member_id, limit 포함) 을 {@link ExecutedSqlCapture} 로 받아 EXPLAIN<br/>
+ * : table scan 이면 plan 에 PUBLIC.MEMBER.tableScan 이 출력된다.
+ */
+@SpringBootTest
+@Transactional
+public class SearchIndexPlanTest {
+    @PersistenceContext
+    private EntityManager em;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private ResultCaches resultCaches;
+
+    @Autowired
+    private ExecutedSqlCapture sqlCapture;
+
+    static Stream<MemberSearchCondition> indexedConditions() {
+        return Stream.of(
+                MemberSearchCondition.builder().username("member1").build(),
+                MemberSearchCondition.builder().username("member1").ageGoe(10).build(),
+                MemberSearchCondition.builder().username("member1").ageGoe(10).ageLoe(40).build(),
+                MemberSearchCondition.builder().username("member1").usernameMatch(UsernameMatch.PREFIX).build(),
+                MemberSearchCondition.builder().username("Member1").usernameIgnoreCase(true).build(),
+                MemberSearchCondition.builder().username("Member1").usernameMatch(UsernameMatch.PREFIX).usernameIgnoreCase(true).build(),
+                MemberSearchCondition.builder().ageGoe(10).build(),
+                MemberSearchCondition.builder().ageLoe(40).build(),
+                MemberSearchCondition.builder().ageGoe(10).ageLoe(40).build(),
+                MemberSearchCondition.builder().teamName("teamB").build(),
+                MemberSearchCondition.builder().teamName("teamB").ageGoe(10).build(),
+                MemberSearchCondition.builder().teamName("teamB").ageGoe(10).ageLoe(40).build()
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("indexedConditions")
+    void searchIndexTest(MemberSearchCondition condition) {
+        //given
+        resultCaches.cache("member-search", TableVersions.MEMBER, TableVersions.TEAM).invalidateAll();
+
+        //when
+        List<String> sqls = sqlCapture.capture(() -> memberRepository.search(condition));
+
+        //then
+        assertIndexed(sqls);
+    }
+
+    @ParameterizedTest
+    @MethodSource("indexedConditions")
+    void searchPageIndexTest(MemberSearchCondition condition) {
+        //when
+        List<String> sqls = sqlCapture.capture(() -> memberRepository.searchPage(condition, PageRequest.of(0, 10)));
+
+        //then
+        assertIndexed(sqls);
+    }
+
+    private void assertIndexed(List<String> sqls) {
+        assertThat(sqls).isNotEmpty();
+        for (String sql : sqls) {
+            String plan = explain(sql);
+            System.out.println(plan);
+            assertThat(plan).doesNotContainIgnoringCase("tableScan");
+        }
+    }
+
+    private String explain(String sql) {
+        List<?> result = em.createNativeQuery("explain " + sql).getResultList();
+        return String.valueOf(result.get(0));
+    }
+}
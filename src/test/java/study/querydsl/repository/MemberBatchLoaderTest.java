@@ -0,0 +1,81 @@
+package study.querydsl.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.study.TestDataGenerator;
+import study.querydsl.repository.support.BatchLoader.Deferred;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MemberBatchLoaderTest extends TestDataGenerator {
+
+    @Autowired
+    private MemberBatchLoader memberBatchLoader;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    /**
+     * select ... from member where member_id in (?, ?, ?, ?, ?)
+     */
+    @Test
+    void findByIdTest() {
+        //given
+        Statistics statistics = statistics();
+        long before = statistics.getPrepareStatementCount();
+
+        //when
+        Deferred<Optional<Member>> d1 = memberBatchLoader.findById(member1.getId());
+        Deferred<Optional<Member>> d2 = memberBatchLoader.findById(member2.getId());
+        Deferred<Optional<Member>> d3 = memberBatchLoader.findById(member3.getId());
+        Deferred<Optional<Member>> d4 = memberBatchLoader.findById(member4.getId());
+        Deferred<Optional<Member>> missing = memberBatchLoader.findById(-1L);
+
+        //then
+        assertThat(d1.isResolved()).isFalse();
+        assertThat(d1.get()).contains(member1);
+        assertThat(d2.get()).contains(member2);
+        assertThat(d3.get()).contains(member3);
+        assertThat(d4.get()).contains(member4);
+        assertThat(missing.get()).isEmpty();
+        assertThat(statistics.getPrepareStatementCount() - before).isEqualTo(1);
+
+        //when: dispatch 가 끝난 key 는 같은 transaction 이라도 다시 조회 (그 사이 변경 반영)
+        memberBatchLoader.findById(member1.getId()).get();
+
+        //then
+        assertThat(statistics.getPrepareStatementCount() - before).isEqualTo(2);
+    }
+
+    /**
+     * select ... from member where username in (?, ?, ?)
+     */
+    @Test
+    void findAllByUsernameTest() {
+        //given
+        Statistics statistics = statistics();
+        long before = statistics.getPrepareStatementCount();
+
+        //when
+        Map<String, List<Member>> actual = memberBatchLoader.findAllByUsername(Arrays.asList("member1", "member3", "none"));
+
+        //then
+        assertThat(actual.get("member1")).containsExactly(member1);
+        assertThat(actual.get("member3")).containsExactly(member3);
+        assertThat(actual.get("none")).isEmpty();
+        assertThat(statistics.getPrepareStatementCount() - before).isEqualTo(1);
+    }
+
+    private Statistics statistics() {
+        return emf.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -7,7 +7,8 @@ import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
-import study.querydsl.entity.Team;
+import study.querydsl.support.DatasetFixtures;
+import study.querydsl.support.TestDataset;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
@@ -22,6 +23,9 @@ public class MemberJpaRepositoryTest {
     @Autowired
     private MemberJpaRepository memberJpaRepository;
 
+    @Autowired
+    private DatasetFixtures fixtures;
+
     @PersistenceContext
     private EntityManager em;
 
@@ -110,22 +114,7 @@ public class MemberJpaRepositoryTest {
     }
 
     private void searchTestData() {
-        Team teamA = Team.builder().name("teamA").build();
-        Team teamB = Team.builder().name("teamB").build();
-        em.persist(teamA);
-        em.persist(teamB);
-
-        Member member1 = Member.builder().username("member1").age(10).team(teamA).build();
-        Member member2 = Member.builder().username("member2").age(20).team(teamA).build();
-        Member member3 = Member.builder().username("member3").age(30).team(teamB).build();
-        Member member4 = Member.builder().username("member4").age(40).team(teamB).build();
-        em.persist(member1);
-        em.persist(member2);
-        em.persist(member3);
-        em.persist(member4);
-
-        em.flush();
-        em.clear();
+        fixtures.load(TestDataset.BASIC);
     }
 
 }
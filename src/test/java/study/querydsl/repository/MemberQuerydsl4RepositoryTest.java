@@ -6,10 +6,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.QueryStatisticsDto;
 import study.querydsl.entity.Member;
-import study.querydsl.entity.Team;
+import study.querydsl.statistics.HibernateStatisticsService;
+import study.querydsl.support.DatasetFixtures;
+import study.querydsl.support.TestDataset;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
@@ -22,6 +27,12 @@ public class MemberQuerydsl4RepositoryTest {
     @Autowired
     private MemberQuerydsl4Repository memberQuerydsl4Repository;
 
+    @Autowired
+    private DatasetFixtures fixtures;
+
+    @Autowired
+    private HibernateStatisticsService statisticsService;
+
     @PersistenceContext
     private EntityManager em;
 
@@ -89,40 +100,99 @@ public class MemberQuerydsl4RepositoryTest {
                 .containsExactly(1, 2, 3, 4, 5);
     }
 
+    /**
+     * 실행된 count JPQL 이 origin + ".count" 로 등록된다.
+     */
+    @Test
+    void applyPaginationCountOriginTest() {
+        //given
+        searchPageTestData();
+        statisticsService.clear();
+        //when
+        Page<Member> actual = memberQuerydsl4Repository.applyPagination(
+                MemberSearchCondition.builder()
+                        .ageGoe(1)
+                        .ageLoe(15)
+                        .build(),
+                PageRequest.of(0, 5)
+        );
+        List<QueryStatisticsDto> statistics = statisticsService.mostFrequent(10);
+        //then
+        Assertions.assertThat(actual.getTotalElements()).isEqualTo(15);
+        Assertions.assertThat(statistics)
+                .extracting("origin")
+                .contains("MemberQuerydsl4Repository.applyPagination", "MemberQuerydsl4Repository.applyPagination.count");
+    }
+
+    /**
+     * teamName 조건이 member.username 이 아닌 team.name 과 비교되는지 확인
+     */
+    @Test
+    void searchPageByApplyTeamNameTest() {
+        //given
+        searchPageTestData();
+        //when
+        Page<Member> actual = memberQuerydsl4Repository.searchPageByApply(
+                MemberSearchCondition.builder()
+                        .teamName("teamB")
+                        .ageLoe(10)
+                        .build(),
+                PageRequest.of(0, 5)
+        );
+        //then
+        Assertions.assertThat(actual)
+                .extracting("username")
+                .containsExactly("member2", "member4", "member6", "member8", "member10");
+        Assertions.assertThat(actual.getTotalElements()).isEqualTo(5);
+    }
+
+    @Test
+    void applySlicingTest() {
+        //given
+        searchPageTestData();
+        //when
+        Slice<Member> actual = memberQuerydsl4Repository.applySlicing(
+                MemberSearchCondition.builder()
+                        .ageGoe(1)
+                        .ageLoe(15)
+                        .build(),
+                PageRequest.of(2, 5)
+        );
+        //then
+        Assertions.assertThat(actual)
+                .extracting("username")
+                .containsExactly("member11", "member12", "member13", "member14", "member15");
+        Assertions.assertThat(actual.hasNext()).isFalse();
+        Assertions.assertThat(actual.hasPrevious()).isTrue();
+    }
+
+    /**
+     * 정렬 조건이 있으면 member.id 대신 그 정렬을 따른다.
+     */
+    @Test
+    void applySlicingSortedTest() {
+        //given
+        searchPageTestData();
+        //when
+        Slice<Member> actual = memberQuerydsl4Repository.applySlicing(
+                MemberSearchCondition.builder()
+                        .ageGoe(1)
+                        .ageLoe(15)
+                        .build(),
+                PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "age"))
+        );
+        //then
+        Assertions.assertThat(actual)
+                .extracting("username")
+                .containsExactly("member15", "member14", "member13");
+        Assertions.assertThat(actual.hasNext()).isTrue();
+    }
+
     private void searchTestData() {
-        Team teamA = Team.builder().name("teamA").build();
-        Team teamB = Team.builder().name("teamB").build();
-        em.persist(teamA);
-        em.persist(teamB);
-
-        Member member1 = Member.builder().username("member1").age(10).team(teamA).build();
-        Member member2 = Member.builder().username("member2").age(20).team(teamA).build();
-        Member member3 = Member.builder().username("member3").age(30).team(teamB).build();
-        Member member4 = Member.builder().username("member4").age(40).team(teamB).build();
-        em.persist(member1);
-        em.persist(member2);
-        em.persist(member3);
-        em.persist(member4);
-
-        em.flush();
-        em.clear();
+        fixtures.load(TestDataset.BASIC);
     }
 
     private void searchPageTestData() {
-        Team teamA = Team.builder().name("teamA").build();
-        Team teamB = Team.builder().name("teamB").build();
-        em.persist(teamA);
-        em.persist(teamB);
-
-        for (int i = 0; i < 30; i++) {
-            Member member = Member.builder()
-                    .username("member" + (i + 1))
-                    .age(i + 1)
-                    .team(i % 2 == 0 ? teamA : teamB).build();
-            em.persist(member);
-        }
-
-        em.flush();
-        em.clear();
+        fixtures.load(TestDataset.PAGE);
     }
 }
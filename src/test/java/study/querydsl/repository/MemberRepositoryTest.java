@@ -1,22 +1,32 @@
 package study.querydsl.repository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.UsernameMatch;
 import study.querydsl.entity.Member;
-import study.querydsl.entity.Team;
+import study.querydsl.support.DatasetFixtures;
+import study.querydsl.support.TestDataset;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.PersistenceContext;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static study.querydsl.entity.QMember.member;
 
 /**
@@ -29,9 +39,18 @@ public class MemberRepositoryTest {
     @Autowired
     private MemberRepository memberRepository;
 
+    @Autowired
+    private DatasetFixtures fixtures;
+
     @PersistenceContext
     private EntityManager em;
 
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Test
     void basicTest() {
         //given
@@ -79,6 +98,104 @@ public class MemberRepositoryTest {
         assertThat(actual).extracting("username").containsExactly("member4");
     }
 
+    /**
+     * ageGoe &gt; ageLoe -> DB 조회 없이 빈 결과
+     */
+    @Test
+    void searchContradictionTest() {
+        //given
+        searchPageTestData();
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+        MemberSearchCondition condition = MemberSearchCondition.builder().ageGoe(30).ageLoe(20).build();
+
+        //when
+        List<MemberTeamDto> actual = memberRepository.search(condition);
+        Page<MemberTeamDto> actualPage = memberRepository.searchPage(condition, PageRequest.of(0, 5));
+
+        //then
+        assertThat(actual).isEmpty();
+        assertThat(actualPage.getContent()).isEmpty();
+        assertThat(actualPage.getTotalElements()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(before);
+    }
+
+    /**
+     * 중간 page 도 count query 없이 content + 전체 건수를 1번에 조회 (count(*) over ())
+     */
+    @Test
+    void searchPageWindowCountTest() {
+        //given
+        searchPageTestData();
+        MemberSearchCondition condition = MemberSearchCondition.builder().teamName("teamB").build();
+        long windowBefore = pageTimerCount("window");
+        long countBefore = pageTimerCount("count");
+
+        //when
+        Page<MemberTeamDto> actual = memberRepository.searchPage(condition, PageRequest.of(1, 5));
+
+        //then
+        assertThat(actual.getContent()).extracting("username").containsExactly("member12", "member14", "member16", "member18", "member20");
+        assertThat(actual.getTotalElements()).isEqualTo(15);
+        assertThat(pageTimerCount("window")).isEqualTo(windowBefore + 1);
+        assertThat(pageTimerCount("count")).isEqualTo(countBefore);
+    }
+
+    /**
+     * select ... limit 6 offset 5 (page size + 1); count query 없음
+     */
+    @Test
+    void searchSliceTest() {
+        //given
+        searchPageTestData();
+        MemberSearchCondition condition = MemberSearchCondition.builder().teamName("teamB").build();
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+
+        //when
+        Slice<MemberTeamDto> middle = memberRepository.searchSlice(condition, PageRequest.of(1, 5));
+        Slice<MemberTeamDto> last = memberRepository.searchSlice(condition, PageRequest.of(2, 5));
+
+        //then
+        assertThat(middle.getContent()).extracting("username").containsExactly("member12", "member14", "member16", "member18", "member20");
+        assertThat(middle.hasNext()).isTrue();
+        assertThat(last.getContent()).extracting("username").containsExactly("member22", "member24", "member26", "member28", "member30");
+        assertThat(last.hasNext()).isFalse();
+        assertThat(statistics.getPrepareStatementCount() - before).isEqualTo(2);
+    }
+
+    @Test
+    void searchUsernameMatchTest() {
+        //given
+        searchPageTestData();
+        MemberSearchCondition prefix = MemberSearchCondition.builder()
+                .username("member1").usernameMatch(UsernameMatch.PREFIX).build();
+        MemberSearchCondition contains = MemberSearchCondition.builder()
+                .username("ER2").usernameMatch(UsernameMatch.CONTAINS).usernameIgnoreCase(true).build();
+        MemberSearchCondition ignoreCase = MemberSearchCondition.builder()
+                .username("Member3").usernameIgnoreCase(true).build();
+        MemberSearchCondition exact = MemberSearchCondition.builder()
+                .username("Member3").build();
+
+        //when
+        List<MemberTeamDto> actualPrefix = memberRepository.search(prefix);
+        List<MemberTeamDto> actualContains = memberRepository.search(contains);
+        List<MemberTeamDto> actualIgnoreCase = memberRepository.search(ignoreCase);
+        List<MemberTeamDto> actualExact = memberRepository.search(exact);
+        MemberTeamColumns actualPrefixColumns = memberRepository.searchColumns(prefix);
+
+        //then
+        assertThat(actualPrefix).extracting("username").containsExactlyInAnyOrder(
+                "member1", "member10", "member11", "member12", "member13", "member14",
+                "member15", "member16", "member17", "member18", "member19");
+        assertThat(actualContains).extracting("username").containsExactlyInAnyOrder(
+                "member2", "member20", "member21", "member22", "member23", "member24",
+                "member25", "member26", "member27", "member28", "member29");
+        assertThat(actualIgnoreCase).extracting("username").containsExactly("member3");
+        assertThat(actualExact).isEmpty();
+        assertThat(actualPrefixColumns.size()).isEqualTo(11);
+    }
+
     @Test
     void searchPagingTest() {
         //given
@@ -98,6 +215,41 @@ public class MemberRepositoryTest {
         assertThat(actual.getTotalPages()).isEqualTo(2);
     }
 
+    @Test
+    void searchColumnsTest() {
+        //given
+        searchPageTestData();
+        MemberSearchCondition condition = MemberSearchCondition.builder().ageGoe(20).ageLoe(30).teamName("teamB").build();
+        List<MemberTeamDto> expected = memberRepository.search(condition);
+
+        //when
+        MemberTeamColumns actual = memberRepository.searchColumns(condition);
+
+        //then
+        assertThat(actual.size()).isEqualTo(expected.size());
+        assertThat(actual.toDtoList())
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(expected);
+        actual.forEach(row -> assertThat(row.getTeamName()).isSameAs(actual.getTeamName(0)));
+    }
+
+    /**
+     * JDBC 조회 전에 flush 하므로 같은 transaction 의 flush 전 변경도 보인다.
+     */
+    @Test
+    void searchColumnsUnflushedTest() {
+        //given
+        em.persist(Member.builder().username("unflushed").age(77).build());
+        MemberSearchCondition condition = MemberSearchCondition.builder().username("unflushed").build();
+
+        //when
+        MemberTeamColumns actual = memberRepository.searchColumns(condition);
+
+        //then
+        assertThat(actual.toDtoList()).extracting("username", "age")
+                .containsExactly(tuple("unflushed", 77));
+    }
+
     /**
      * 한계점
      * 조인X (묵시적 조인은 가능하지만 left join이 불가능하다.)
@@ -121,40 +273,16 @@ public class MemberRepositoryTest {
         assertThat(actual).extracting("age").containsExactly(30, 40);
     }
 
+    private long pageTimerCount(String strategy) {
+        Timer timer = meterRegistry.find("member.search.page").tag("strategy", strategy).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
     private void searchTestData() {
-        Team teamA = Team.builder().name("teamA").build();
-        Team teamB = Team.builder().name("teamB").build();
-        em.persist(teamA);
-        em.persist(teamB);
-
-        Member member1 = Member.builder().username("member1").age(10).team(teamA).build();
-        Member member2 = Member.builder().username("member2").age(20).team(teamA).build();
-        Member member3 = Member.builder().username("member3").age(30).team(teamB).build();
-        Member member4 = Member.builder().username("member4").age(40).team(teamB).build();
-        em.persist(member1);
-        em.persist(member2);
-        em.persist(member3);
-        em.persist(member4);
-
-        em.flush();
-        em.clear();
+        fixtures.load(TestDataset.BASIC);
     }
 
     private void searchPageTestData() {
-        Team teamA = Team.builder().name("teamA").build();
-        Team teamB = Team.builder().name("teamB").build();
-        em.persist(teamA);
-        em.persist(teamB);
-
-        for (int i = 0; i < 30; i++) {
-            Member member = Member.builder()
-                    .username("member" + (i + 1))
-                    .age(i + 1)
-                    .team(i % 2 == 0 ? teamA : teamB).build();
-            em.persist(member);
-        }
-
-        em.flush();
-        em.clear();
+        fixtures.load(TestDataset.PAGE);
     }
 }
@@ -0,0 +1,185 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.UsernameMatch;
+import study.querydsl.entity.Member;
+import study.querydsl.statistics.SqlQueryStatistics;
+import study.querydsl.support.DatasetFixtures;
+import study.querydsl.support.TestDataset;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@Transactional
+public class MemberSqlRepositoryTest {
+
+    @Autowired
+    private MemberSqlRepository memberSqlRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private DatasetFixtures fixtures;
+
+    @Autowired
+    private SqlQueryStatistics sqlQueryStatistics;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @BeforeEach
+    void setUp() {
+        fixtures.load(TestDataset.PAGE);
+    }
+
+    /**
+     * username (없음 / EXACT / PREFIX / CONTAINS x 대소문자 무시) x teamName (없음 / teamB) x age (없음 / goe / loe / between / 결과 없음)
+     */
+    static Stream<MemberSearchCondition> conditionShapes() {
+        List<MemberSearchCondition> conditions = new ArrayList<>();
+        List<MemberSearchCondition.MemberSearchConditionBuilder> usernames = new ArrayList<>();
+        usernames.add(MemberSearchCondition.builder());
+        for (UsernameMatch match : UsernameMatch.values()) {
+            String username = match == UsernameMatch.CONTAINS ? "ber2" : "member1";
+            usernames.add(MemberSearchCondition.builder().username(username).usernameMatch(match));
+            usernames.add(MemberSearchCondition.builder().username(username.toUpperCase()).usernameMatch(match).usernameIgnoreCase(true));
+        }
+        Integer[][] ages = {{null, null}, {12, null}, {null, 25}, {12, 25}, {25, 12}};
+        for (MemberSearchCondition.MemberSearchConditionBuilder username : usernames) {
+            for (String teamName : new String[]{null, "teamB"}) {
+                for (Integer[] age : ages) {
+                    conditions.add(username.teamName(teamName).ageGoe(age[0]).ageLoe(age[1]).build());
+                }
+            }
+        }
+        return conditions.stream();
+    }
+
+    /**
+     * 같은 조건 규칙 (CompiledCondition) 을 JPQL, querydsl-sql, ResultSet 조회가 같이 쓰므로 결과가 같다.<br/>
+     * : team 없는 member (left join) 포함
+     */
+    @ParameterizedTest
+    @MethodSource("conditionShapes")
+    void conditionShapesTest(MemberSearchCondition condition) {
+        //given
+        em.persist(Member.builder().username("member1x").age(15).build());
+
+        //when
+        List<MemberTeamDto> jpa = memberRepository.search(condition);
+        List<MemberTeamDto> sql = memberSqlRepository.searchPageWithWindowCount(condition, PageRequest.of(0, 100)).getContent();
+        List<MemberTeamDto> columns = memberRepository.searchColumns(condition).toDtoList();
+
+        //then
+        assertThat(sql).usingRecursiveFieldByFieldElementComparator().containsExactlyInAnyOrderElementsOf(jpa);
+        assertThat(columns).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(sql);
+    }
+
+    /**
+     * select m.member_id, m.username, m.age, t.id, t.name, count(*) over ()
+     * from member m
+     * left join team t on m.team_id = t.id
+     * where t.name = ? and m.age between ? and ?
+     * order by m.member_id asc
+     * limit ?
+     */
+    @Test
+    void searchPageWithWindowCountTest() {
+        //given
+        MemberSearchCondition condition = MemberSearchCondition.builder().ageGoe(20).ageLoe(30).teamName("teamB").build();
+        PageRequest pageRequest = PageRequest.of(0, 5);
+
+        //when
+        Page<MemberTeamDto> actual = memberSqlRepository.searchPageWithWindowCount(condition, pageRequest);
+        Page<MemberTeamDto> expected = memberRepository.searchPage(condition, pageRequest);
+
+        //then
+        assertThat(actual.getContent()).extracting("username").containsExactly("member20", "member22", "member24", "member26", "member28");
+        assertThat(actual.getContent()).extracting("teamName").containsOnly("teamB");
+        assertThat(actual.getContent()).usingRecursiveFieldByFieldElementComparator().isEqualTo(expected.getContent());
+        assertThat(actual.getTotalElements()).isEqualTo(expected.getTotalElements()).isEqualTo(6);
+        assertThat(actual.getTotalPages()).isEqualTo(2);
+    }
+
+    /**
+     * content 가 없는 page 는 count 를 따로 조회
+     */
+    @Test
+    void searchPageWithWindowCountOutOfRangeTest() {
+        //given
+        MemberSearchCondition condition = MemberSearchCondition.builder().teamName("teamA").build();
+
+        //when
+        Page<MemberTeamDto> actual = memberSqlRepository.searchPageWithWindowCount(condition, PageRequest.of(5, 5));
+
+        //then
+        assertThat(actual.getContent()).isEmpty();
+        assertThat(actual.getTotalElements()).isEqualTo(15);
+    }
+
+    @Test
+    void searchPageWithWindowCountContradictionTest() {
+        //given
+        MemberSearchCondition condition = MemberSearchCondition.builder().ageGoe(30).ageLoe(20).build();
+
+        //when
+        Page<MemberTeamDto> actual = memberSqlRepository.searchPageWithWindowCount(condition, PageRequest.of(0, 5));
+
+        //then
+        assertThat(actual.getContent()).isEmpty();
+        assertThat(actual.getTotalElements()).isZero();
+    }
+
+    /**
+     * 같은 transaction 에서 flush 전 JPA 변경도 SQL query 에 보인다.
+     */
+    @Test
+    void jpaChangeVisibleTest() {
+        //given
+        em.persist(Member.builder().username("member31").age(31).build());
+        MemberSearchCondition condition = MemberSearchCondition.builder().username("member31").build();
+
+        //when
+        Page<MemberTeamDto> actual = memberSqlRepository.searchPageWithWindowCount(condition, PageRequest.of(0, 5));
+
+        //then
+        assertThat(actual.getContent()).extracting("username", "age", "teamId")
+                .containsExactly(tuple("member31", 31, null));
+        assertThat(actual.getTotalElements()).isEqualTo(1);
+    }
+
+    /**
+     * querydsl-sql query 도 origin 별 실행 통계에 남는다. (Hibernate statistics 에는 없음)
+     */
+    @Test
+    void originStatisticsTest() {
+        //given
+        sqlQueryStatistics.clear();
+        MemberSearchCondition condition = MemberSearchCondition.builder().teamName("teamA").build();
+
+        //when
+        memberSqlRepository.searchPageWithWindowCount(condition, PageRequest.of(0, 5));
+
+        //then
+        assertThat(sqlQueryStatistics.queries()).extracting("origin", "executionCount")
+                .containsExactly(tuple("MemberSqlRepository.searchPageWithWindowCount", 1L));
+    }
+}
@@ -0,0 +1,103 @@
+package study.querydsl.repository.study;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import study.querydsl.dto.MemberAgeDeviationDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+import study.querydsl.repository.study.AggregateJoinRepository.Strategy;
+
+import java.util.List;
+
+import static com.querydsl.jpa.JPAExpressions.select;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 각 strategy 결과가 QuerydslBasicTest 의 subquery 결과와 같은지 확인
+ */
+public class AggregateJoinRepositoryTest extends TestDataGenerator {
+
+    @Autowired
+    private AggregateJoinRepository aggregateJoinRepository;
+
+    /**
+     * select m.member_id, m.age, m.team_id, m.username, m.username_lower
+     * from member m
+     * join (select max(s.age) as max_age from member s) a on m.age = a.max_age
+     * order by m.member_id
+     */
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void findByMaxAgeTest(Strategy strategy) {
+        //given
+        QMember memberSub = new QMember("memberSub");
+        List<Member> expected = queryFactory
+                .selectFrom(member)
+                .where(member.age.eq(select(memberSub.age.max()).from(memberSub)))
+                .fetch();
+
+        //when
+        List<Member> actual = aggregateJoinRepository.findByMaxAge(strategy);
+
+        //then
+        assertThat(actual).isEqualTo(expected);
+        assertThat(actual).extracting("username").containsExactly("member4");
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void findByAgeGoeAvgTest(Strategy strategy) {
+        //given
+        QMember memberSub = new QMember("memberSub");
+        List<Member> expected = queryFactory
+                .selectFrom(member)
+                .where(member.age.goe(select(memberSub.age.avg()).from(memberSub)))
+                .orderBy(member.id.asc())
+                .fetch();
+
+        //when
+        List<Member> actual = aggregateJoinRepository.findByAgeGoeAvg(strategy);
+
+        //then
+        assertThat(actual).isEqualTo(expected);
+        assertThat(actual).extracting("username").containsExactly("member3", "member4");
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void findOldestPerTeamTest(Strategy strategy) {
+        //given
+        QMember memberSub = new QMember("memberSub");
+        List<Member> expected = queryFactory
+                .selectFrom(member)
+                .where(member.age.eq(select(memberSub.age.max())
+                        .from(memberSub)
+                        .where(memberSub.team.eq(member.team))))
+                .orderBy(member.id.asc())
+                .fetch();
+
+        //when
+        List<Member> actual = aggregateJoinRepository.findOldestPerTeam(strategy);
+
+        //then
+        assertThat(actual).isEqualTo(expected);
+        assertThat(actual).extracting("username").containsExactly("member2", "member4");
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void findAgeDeviationTest(Strategy strategy) {
+        //when
+        List<MemberAgeDeviationDto> actual = aggregateJoinRepository.findAgeDeviation(strategy);
+
+        //then
+        assertThat(actual).extracting("username", "deviation").containsExactly(
+                tuple("member1", 15.0),
+                tuple("member2", 5.0),
+                tuple("member3", -5.0),
+                tuple("member4", -15.0));
+    }
+}
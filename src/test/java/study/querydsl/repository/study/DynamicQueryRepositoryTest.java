@@ -71,6 +71,21 @@ public class DynamicQueryRepositoryTest extends TestDataGenerator {
         //then
         assertThat(actualAll).containsExactly(member1);
     }
+    /**
+     * usernameCond 가 null 이어도 NPE 없이 나이 조건만 적용
+     */
+    @Test
+    void dynamicQueryWhereParamAllNullUsernameTest() {
+        //given
+        String usernameParam = null;
+        Integer ageParam = 10;
+
+        //when
+        List<Member> actualAll = dynamicQueryRepository.searchMemberWhereParamAll(usernameParam, ageParam);
+
+        //then
+        assertThat(actualAll).containsExactly(member1);
+    }
     @Test
     void dynamicQueryWhereParamReusableTest() {
         //given
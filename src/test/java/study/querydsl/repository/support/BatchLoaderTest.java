@@ -0,0 +1,46 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+import study.querydsl.repository.support.BatchLoader.Deferred;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * transaction 밖 (thread scope) 동작
+ */
+public class BatchLoaderTest {
+
+    /**
+     * batch 함수가 실패하면 모아둔 Deferred 는 모두 같은 예외, 다음 load 는 새 batch
+     */
+    @Test
+    void dispatchFailureTest() {
+        //given
+        AtomicInteger calls = new AtomicInteger();
+        BatchLoader<Long, String> loader = new BatchLoader<>(ids -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("db down");
+            }
+            return toValues(ids);
+        }, null, 10);
+        Deferred<String> d1 = loader.load(1L);
+        Deferred<String> d2 = loader.load(2L);
+
+        //when, then
+        assertThatThrownBy(d1::get).hasMessage("db down");
+        assertThat(d2.isResolved()).isTrue();
+        assertThatThrownBy(d2::get).hasMessage("db down");
+        assertThat(loader.load(1L).get()).isEqualTo("v1");
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    private static Map<Long, String> toValues(List<Long> ids) {
+        return Collections.singletonMap(ids.get(0), "v" + ids.get(0));
+    }
+}
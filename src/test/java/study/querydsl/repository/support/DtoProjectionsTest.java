@@ -0,0 +1,184 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.JPAExpressions;
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.dto.UserDto;
+import study.querydsl.entity.QMember;
+import study.querydsl.repository.study.TestDataGenerator;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * {@link DtoProjections} 결과가 {@link Projections}, @QueryProjection 결과와 같은지 확인
+ */
+public class DtoProjectionsTest extends TestDataGenerator {
+
+    @Test
+    void constructorTest() {
+        //given
+        List<MemberTeamDto> expected = queryFactory
+                .select(new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .fetch();
+
+        //when
+        List<MemberTeamDto> actual = queryFactory
+                .select(MemberProjections.MEMBER_TEAM_DTO)
+                .from(member)
+                .leftJoin(member.team, team)
+                .fetch();
+
+        //then
+        assertThat(actual)
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void dictionaryTest() {
+        //given
+        ConstructorProjection<MemberTeamDto> projection = MemberProjections.memberTeamDto();
+
+        //when
+        List<MemberTeamDto> actual = queryFactory
+                .select(projection)
+                .from(member)
+                .leftJoin(member.team, team)
+                .fetch();
+
+        //then
+        assertThat(actual).extracting("teamName").containsExactly("teamA", "teamA", "teamB", "teamB");
+        assertThat(actual.get(0).getTeamName()).isSameAs(actual.get(1).getTeamName());
+        assertThat(actual.get(2).getTeamName()).isSameAs(actual.get(3).getTeamName());
+        assertThat(projection.getDictionary().size()).isEqualTo(2);
+        assertThat(projection.getDictionary().deduplicated()).isEqualTo(2);
+    }
+
+    /**
+     * dictionary 적용은 projection 의 재사용 배열에서 하므로 Querydsl 의 row 배열은 바뀌지 않는다.
+     */
+    @Test
+    void dictionaryRowTest() {
+        //given
+        ConstructorProjection<MemberTeamDto> projection = MemberProjections.memberTeamDto();
+        Object[] first = {1L, "member1", 10, 1L, new String("teamA")};
+        Object[] second = {2L, "member2", 20, 1L, new String("teamA")};
+        Object secondTeamName = second[4];
+
+        //when
+        MemberTeamDto actualFirst = projection.newInstance(first);
+        MemberTeamDto actualSecond = projection.newInstance(second);
+
+        //then
+        assertThat(actualFirst).extracting("memberId", "username", "age", "teamId", "teamName")
+                .containsExactly(1L, "member1", 10, 1L, "teamA");
+        assertThat(actualSecond).extracting("memberId", "username", "age", "teamId", "teamName")
+                .containsExactly(2L, "member2", 20, 1L, "teamA");
+        assertThat(actualSecond.getTeamName()).isSameAs(actualFirst.getTeamName());
+        assertThat(second[4]).isSameAs(secondTeamName);
+    }
+
+    @Test
+    void beanTest() {
+        //given
+        List<MemberDto> expected = queryFactory
+                .select(Projections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch();
+
+        //when
+        List<MemberDto> actual = queryFactory
+                .select(DtoProjections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch();
+
+        //then
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void fieldsTest() {
+        //given
+        QMember memberSub = new QMember("memberSub");
+        List<UserDto> expected = queryFactory
+                .select(Projections.fields(UserDto.class,
+                        member.username.as("name"),
+                        ExpressionUtils.as(JPAExpressions.select(memberSub.age.max()).from(memberSub), "age")))
+                .from(member)
+                .fetch();
+
+        //when
+        List<UserDto> actual = queryFactory
+                .select(DtoProjections.fields(UserDto.class,
+                        member.username.as("name"),
+                        ExpressionUtils.as(JPAExpressions.select(memberSub.age.max()).from(memberSub), "age")))
+                .from(member)
+                .fetch();
+
+        //then
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void nullToPrimitiveDefaultTest() {
+        //when
+        MemberDto actual = DtoProjections.constructor(MemberDto.class, member.username, member.age)
+                .newInstance("member1", null);
+
+        //then
+        assertThat(actual.getAge()).isEqualTo(0);
+        assertThat(actual.getUsername()).isEqualTo("member1");
+    }
+
+    /**
+     * 인자 0개 constructor() 와 bean() 은 같은 DTO 에 어떤 순서로 호출해도 각자의 생성자 handle 을 쓴다.
+     */
+    @Test
+    void noArgsConstructorAndBeanTest() {
+        //when
+        NoArgsDto constructorFirst = DtoProjections.constructor(NoArgsDto.class).newInstance();
+        NoArgsDto beanSecond = DtoProjections.bean(NoArgsDto.class, member.username).newInstance("member1");
+        OtherNoArgsDto beanFirst = DtoProjections.bean(OtherNoArgsDto.class, member.username).newInstance("member2");
+        OtherNoArgsDto constructorSecond = DtoProjections.constructor(OtherNoArgsDto.class).newInstance();
+
+        //then
+        assertThat(constructorFirst.getUsername()).isNull();
+        assertThat(beanSecond.getUsername()).isEqualTo("member1");
+        assertThat(beanFirst.getUsername()).isEqualTo("member2");
+        assertThat(constructorSecond.getUsername()).isNull();
+    }
+
+    public static class NoArgsDto {
+        private String username;
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+    }
+
+    public static class OtherNoArgsDto {
+        private String username;
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+    }
+}
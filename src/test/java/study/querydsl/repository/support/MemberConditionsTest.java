@@ -0,0 +1,77 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.study.TestDataGenerator;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+public class MemberConditionsTest extends TestDataGenerator {
+
+    /**
+     * 조건 값이 달라도 모양이 같으면 where 조건 tree 를 재사용
+     */
+    @Test
+    void sameShapeTest() {
+        //given
+        CompiledCondition first = MemberConditions.compile(MemberSearchCondition.builder().teamName("teamA").ageGoe(10).build());
+        CompiledCondition second = MemberConditions.compile(MemberSearchCondition.builder().teamName("teamB").ageGoe(30).build());
+        CompiledCondition other = MemberConditions.compile(MemberSearchCondition.builder().teamName("teamB").ageLoe(30).build());
+
+        //then
+        assertThat(first.getPredicate()).isSameAs(second.getPredicate());
+        assertThat(first.getPredicate()).isNotSameAs(other.getPredicate());
+        assertThat(first.requiresTeamJoin()).isTrue();
+    }
+
+    /**
+     * 빈 문자열, null 조건은 무시
+     */
+    @Test
+    void emptyTest() {
+        //when
+        CompiledCondition actual = MemberConditions.compile(MemberSearchCondition.builder().username("").teamName(" ").build());
+
+        //then
+        assertThat(actual.isEmpty()).isTrue();
+        assertThat(actual.requiresTeamJoin()).isFalse();
+    }
+
+    /**
+     * where team.name = ?1 and member.age >= ?2
+     */
+    @Test
+    void applyToTest() {
+        //given
+        CompiledCondition teamB = MemberConditions.compile(MemberSearchCondition.builder().teamName("teamB").ageGoe(35).build());
+        CompiledCondition teamA = MemberConditions.compile(MemberSearchCondition.builder().teamName("teamA").ageGoe(15).build());
+
+        //when
+        List<Member> actualB = teamB.applyTo(queryFactory.selectFrom(member).leftJoin(member.team, team)).fetch();
+        List<Member> actualA = teamA.applyTo(queryFactory.selectFrom(member).leftJoin(member.team, team)).fetch();
+
+        //then
+        assertThat(actualB).extracting("username").containsExactly("member4");
+        assertThat(actualA).extracting("username").containsExactly("member2");
+    }
+
+    /**
+     * where member.age between ?1 and ?2
+     */
+    @Test
+    void ageBetweenTest() {
+        //when
+        CompiledCondition actual = MemberConditions.compile(MemberSearchCondition.builder().ageGoe(15).ageLoe(35).build());
+        CompiledCondition contradiction = MemberConditions.compile(MemberSearchCondition.builder().ageGoe(35).ageLoe(15).build());
+
+        //then
+        assertThat(actual.applyTo(queryFactory.selectFrom(member)).fetch()).extracting("username").containsExactly("member2", "member3");
+        assertThat(contradiction.isContradiction()).isTrue();
+        assertThat(contradiction.applyTo(queryFactory.selectFrom(member)).fetch()).isEmpty();
+    }
+}
@@ -0,0 +1,178 @@
+package study.querydsl.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberUsernameDto;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.study.TestDataGenerator;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * test 에서는 bootstrap 을 끄고 (username-index.bootstrap: false) fixture 적재 후 직접 rebuild()<br/>
+ * : JdbcTemplate 이 test transaction 의 connection 을 같이 쓰므로 rollback 될 fixture 도 보인다.
+ */
+public class UsernameIndexTest extends TestDataGenerator {
+
+    @Autowired
+    private UsernameIndex usernameIndex;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @BeforeEach
+    void rebuild() {
+        usernameIndex.rebuild();
+    }
+
+    @Test
+    void rebuildTest() {
+        assertThat(usernameIndex.isReady()).isTrue();
+        assertThat(usernameIndex.size()).isEqualTo(4);
+        assertThat(usernameIndex.search("ER1")).containsExactly(member1.getId());
+        assertThat(usernameIndex.search("mber")).containsExactly(member1.getId(), member2.getId(), member3.getId(), member4.getId());
+        assertThat(usernameIndex.search("none")).isEmpty();
+    }
+
+    /**
+     * 3글자 이하는 1, 2글자 posting 에서 바로
+     */
+    @Test
+    void shortFragmentTest() {
+        assertThat(usernameIndex.search("r4")).containsExactly(member4.getId());
+        assertThat(usernameIndex.search("M", 2)).containsExactly(member1.getId(), member2.getId());
+        assertThat(usernameIndex.search("")).isEmpty();
+    }
+
+    /**
+     * 자동완성은 색인의 member_id, username 으로 응답 (원래 대소문자 유지)
+     */
+    @Test
+    void suggestUsernamesTest() {
+        //when
+        List<MemberUsernameDto> actual = memberRepository.suggestUsernames("BER", 3);
+
+        //then
+        assertThat(actual).extracting("memberId", "username")
+                .containsExactly(
+                        tuple(member1.getId(), "member1"),
+                        tuple(member2.getId(), "member2"),
+                        tuple(member3.getId(), "member3"));
+    }
+
+    @Test
+    void searchByUsernameIndexTest() {
+        //given
+        MemberSearchCondition condition = MemberSearchCondition.builder()
+                .username("MEMBER")
+                .teamName("teamB")
+                .build();
+
+        //when
+        List<MemberTeamDto> actual = memberRepository.searchByUsernameIndex(condition, 10);
+
+        //then
+        assertThat(actual).extracting("username").containsExactly("member3", "member4");
+    }
+
+    @Test
+    void searchByUsernameIndexLimitTest() {
+        //given
+        MemberSearchCondition condition = MemberSearchCondition.builder()
+                .username("mem")
+                .ageGoe(20)
+                .build();
+
+        //when
+        List<MemberTeamDto> actual = memberRepository.searchByUsernameIndex(condition, 2);
+
+        //then
+        assertThat(actual).extracting("username").containsExactly("member2", "member3");
+    }
+
+    @Test
+    void searchByUsernameIndexContradictionTest() {
+        //given
+        MemberSearchCondition condition = MemberSearchCondition.builder()
+                .username("member")
+                .ageGoe(30)
+                .ageLoe(20)
+                .build();
+
+        //when
+        List<MemberTeamDto> actual = memberRepository.searchByUsernameIndex(condition, 10);
+
+        //then
+        assertThat(actual).isEmpty();
+    }
+
+    /**
+     * commit 통지 (insert / update / delete) 반영 단위
+     */
+    @Test
+    void postingsUpdateTest() {
+        //given
+        TrigramPostings postings = new TrigramPostings();
+        postings.add(1L, "member1");
+        postings.add(2L, "member2");
+
+        //when
+        postings.remove(1L);
+        postings.add(1L, "renamed");
+        postings.remove(2L);
+
+        //then
+        assertThat(postings.size()).isEqualTo(1);
+        assertThat(postings.search("mem", 10)).isEmpty();
+        assertThat(postings.search("name", 10)).containsExactly(1L);
+        assertThat(postings.username(1L)).isEqualTo("renamed");
+    }
+
+    /**
+     * trigram 은 모두 있지만 순서가 다른 경우 (false positive) 제외
+     */
+    @Test
+    void postingsVerifyTest() {
+        //given
+        TrigramPostings postings = new TrigramPostings();
+        postings.add(1L, "abcxbcd");
+
+        //when
+        List<Long> actual = postings.search("abcd", 10);
+
+        //then
+        assertThat(actual).isEmpty();
+    }
+
+    /**
+     * 삭제 표시 (압축 전후) 와 afterId 이후 묶음 조회
+     */
+    @Test
+    void postingsRemoveManyTest() {
+        //given
+        TrigramPostings postings = new TrigramPostings();
+        for (long id = 1; id <= 100; id++) {
+            postings.add(id, "member" + id);
+        }
+
+        //when
+        for (long id = 1; id <= 100; id += 2) {
+            postings.remove(id);
+        }
+        postings.remove(2L);
+        postings.add(1L, "member1");
+
+        //then
+        assertThat(postings.size()).isEqualTo(50);
+        assertThat(postings.search("m", 3)).containsExactly(1L, 4L, 6L);
+        assertThat(postings.search("m", 4L, 3)).containsExactly(6L, 8L, 10L);
+        assertThat(postings.search("ber9", 10)).containsExactly(90L, 92L, 94L, 96L, 98L);
+        assertThat(postings.search("ber9", 94L, 10)).containsExactly(96L, 98L);
+    }
+}
@@ -0,0 +1,251 @@
+package study.querydsl.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.AgeHistogramDto;
+import study.querydsl.dto.TeamStatisticsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.study.BulkUpdateRepository;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * commit 통지로 갱신되는지 확인해야 하므로 test transaction(rollback) 을 쓰지 않는다.<br/>
+ * : 직접 commit 한 데이터는 {@link #tearDown()} 에서 삭제
+ */
+@SpringBootTest
+public class TeamStatisticsServiceTest {
+    private static final String TEAM_A = "statsTeamA";
+    private static final String TEAM_B = "statsTeamB";
+
+    @Autowired
+    private TeamStatisticsService teamStatisticsService;
+
+    @Autowired
+    private BulkUpdateRepository bulkUpdateRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = Team.builder().name(TEAM_A).build();
+            Team teamB = Team.builder().name(TEAM_B).build();
+            em.persist(teamA);
+            em.persist(teamB);
+            em.persist(Member.builder().username("stats1").age(10).team(teamA).build());
+            em.persist(Member.builder().username("stats2").age(20).team(teamA).build());
+            em.persist(Member.builder().username("stats3").age(30).team(teamB).build());
+        });
+        teamStatisticsService.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.team.id in (select t.id from Team t where t.name in :names)")
+                    .setParameter("names", Arrays.asList(TEAM_A, TEAM_B))
+                    .executeUpdate();
+            em.createQuery("delete from Team t where t.name in :names")
+                    .setParameter("names", Arrays.asList(TEAM_A, TEAM_B))
+                    .executeUpdate();
+        });
+    }
+
+    @Test
+    void rebuildTest() {
+        assertThat(teamStatisticsService.isReady()).isTrue();
+        assertStatistics(TEAM_A, 2, 30, 10, 20);
+        assertStatistics(TEAM_B, 1, 30, 30, 30);
+        assertThat(teamStatisticsService.findByTeamName(TEAM_A).get().getAgeAvg()).isEqualTo(15.0);
+    }
+
+    /**
+     * insert -> team 변경 -> delete 가 commit 될 때마다 반영
+     */
+    @Test
+    void incrementalTest() {
+        //when: insert
+        tx.executeWithoutResult(status -> {
+            Team teamA = findTeam(TEAM_A);
+            em.persist(Member.builder().username("stats4").age(40).team(teamA).build());
+        });
+
+        //then
+        assertStatistics(TEAM_A, 3, 70, 10, 40);
+
+        //when: team 변경 (min 이 빠짐)
+        tx.executeWithoutResult(status -> findMember("stats1").changeTeam(findTeam(TEAM_B)));
+
+        //then
+        assertStatistics(TEAM_A, 2, 60, 20, 40);
+        assertStatistics(TEAM_B, 2, 40, 10, 30);
+
+        //when: delete (max 가 빠짐)
+        tx.executeWithoutResult(status -> em.remove(findMember("stats4")));
+
+        //then
+        assertStatistics(TEAM_A, 1, 20, 20, 20);
+        assertThat(teamStatisticsService.isReady()).isTrue();
+    }
+
+    /**
+     * bulk update 는 전체 재구성; 끝나기 전에는 group by 조회로 대체되므로 바로 조회해도 같은 결과
+     */
+    @Test
+    void bulkTest() {
+        //when
+        tx.executeWithoutResult(status -> bulkUpdateRepository.bulkAddAge(1));
+
+        //then
+        assertStatistics(TEAM_A, 2, 32, 11, 21);
+        assertStatistics(TEAM_B, 1, 31, 31, 31);
+    }
+
+    @Test
+    void ageDistributionTest() {
+        //when
+        AgeHistogramDto histogram = teamStatisticsService.ageHistogram(TEAM_A, 10);
+
+        //then
+        assertThat(histogram.getCount()).isEqualTo(2);
+        assertThat(histogram.getBuckets()).extracting("ageGoe", "ageLoe", "count")
+                .containsExactly(tuple(10, 19, 1L), tuple(20, 29, 1L));
+        assertThat(teamStatisticsService.agePercentile(TEAM_A, 0.5)).isEqualTo(10);
+        assertThat(teamStatisticsService.agePercentile(TEAM_A, 1)).isEqualTo(20);
+        assertThat(teamStatisticsService.countByAge(TEAM_A, 15, null)).isEqualTo(1);
+        assertThat(teamStatisticsService.countByAge(TEAM_B, 20, 30)).isEqualTo(1);
+        assertThat(teamStatisticsService.countByAge(TEAM_A, 30, 20)).isZero();
+    }
+
+    /**
+     * 구간 수가 상한을 넘으면 폭을 넓힌다.
+     */
+    @Test
+    void histogramBucketLimitTest() {
+        //given
+        TreeMap<Integer, Long> ageCounts = new TreeMap<>();
+        ageCounts.put(0, 1L);
+        ageCounts.put(1_000_000, 1L);
+        AgeDistribution distribution = new AgeDistribution(null, ageCounts);
+
+        //when
+        AgeHistogramDto histogram = distribution.histogram(1);
+
+        //then
+        assertThat(histogram.getBuckets()).hasSizeLessThanOrEqualTo(AgeDistribution.MAX_BUCKETS);
+        assertThat(histogram.getBucketWidth()).isGreaterThan(1);
+        assertThat(histogram.getBuckets()).filteredOn(bucket -> bucket.getCount() > 0).hasSize(2);
+    }
+
+    /**
+     * ChangeTracker 를 거치지 않은 변경 (bulk 기록 없이 실행한 JPQL update) 은 reconcile 에서 보정
+     */
+    @Test
+    void reconcileTest() {
+        //given
+        tx.executeWithoutResult(status -> em.createQuery("update Member m set m.age = 50 where m.username = :username")
+                .setParameter("username", "stats1")
+                .executeUpdate());
+        assertStatistics(TEAM_A, 2, 30, 10, 20);
+
+        //when
+        boolean first = teamStatisticsService.reconcile();
+        boolean second = teamStatisticsService.reconcile();
+
+        //then
+        assertThat(first).isFalse();
+        assertThat(second).isTrue();
+        assertStatistics(TEAM_A, 2, 70, 20, 50);
+    }
+
+    /**
+     * 재구성 중에 commit 이 계속 들어와도 정해진 횟수만 다시 구성하고 구성 완료 (group by 대체가 끝나지 않는 상태가 되지 않음)
+     */
+    @Test
+    void rebuildUnderWritesTest() throws Exception {
+        //given
+        Long teamAId = tx.execute(status -> findTeam(TEAM_A).getId());
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicInteger written = new AtomicInteger();
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        Future<?> writes = writer.submit(() -> {
+            while (writing.get()) {
+                int n = written.incrementAndGet();
+                tx.executeWithoutResult(status -> em.persist(Member.builder()
+                        .username("statsWriter" + n)
+                        .age(n % 50)
+                        .team(em.getReference(Team.class, teamAId))
+                        .build()));
+            }
+        });
+
+        try {
+            //when
+            teamStatisticsService.rebuild();
+
+            //then: 쓰기가 계속되는 동안 구성 완료
+            assertThat(waitUntilReady()).isTrue();
+        } finally {
+            writing.set(false);
+            writes.get(5, TimeUnit.SECONDS);
+            writer.shutdown();
+        }
+
+        //then: 쓰기가 멈춘 뒤 재구성하면 table 과 같음
+        teamStatisticsService.rebuild();
+        assertThat(teamStatisticsService.findByTeamName(TEAM_A).orElseThrow().getCount()).isEqualTo(2L + written.get());
+    }
+
+    private boolean waitUntilReady() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!teamStatisticsService.isReady() && System.nanoTime() - deadline < 0) {
+            Thread.sleep(10);
+        }
+        return teamStatisticsService.isReady();
+    }
+
+    private void assertStatistics(String teamName, long count, long ageSum, int ageMin, int ageMax) {
+        TeamStatisticsDto actual = teamStatisticsService.findByTeamName(teamName).orElseThrow();
+        assertThat(actual.getCount()).isEqualTo(count);
+        assertThat(actual.getAgeSum()).isEqualTo(ageSum);
+        assertThat(actual.getAgeMin()).isEqualTo(ageMin);
+        assertThat(actual.getAgeMax()).isEqualTo(ageMax);
+    }
+
+    private Team findTeam(String name) {
+        return em.createQuery("select t from Team t where t.name = :name", Team.class)
+                .setParameter("name", name)
+                .getSingleResult();
+    }
+
+    private Member findMember(String username) {
+        return em.createQuery("select m from Member m where m.username = :username", Member.class)
+                .setParameter("username", username)
+                .getSingleResult();
+    }
+}
@@ -0,0 +1,59 @@
+package study.querydsl.sql;
+
+import com.querydsl.core.types.Path;
+import com.querydsl.sql.RelationalPathBase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 직접 작성한 {@link SMember}, {@link STeam} 이 migration 으로 만든 schema 와 같은지 확인<br/>
+ * : column 이 추가/변경되면 여기서 실패하므로 S class 도 같이 수정
+ */
+@SpringBootTest
+public class SqlMetadataTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void memberColumnsTest() throws SQLException {
+        assertThat(columns(SMember.member)).containsExactlyInAnyOrderElementsOf(tableColumns("MEMBER"));
+    }
+
+    @Test
+    void teamColumnsTest() throws SQLException {
+        assertThat(columns(STeam.team)).containsExactlyInAnyOrderElementsOf(tableColumns("TEAM"));
+    }
+
+    private static List<String> columns(RelationalPathBase<?> table) {
+        List<String> result = new ArrayList<>();
+        for (Path<?> column : table.getColumns()) {
+            result.add(table.getMetadata(column).getName());
+        }
+        return result;
+    }
+
+    private List<String> tableColumns(String table) throws SQLException {
+        List<String> result = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet rs = metaData.getColumns(null, "PUBLIC", table, null)) {
+                while (rs.next()) {
+                    result.add(rs.getString("COLUMN_NAME"));
+                }
+            }
+        }
+        return result;
+    }
+}
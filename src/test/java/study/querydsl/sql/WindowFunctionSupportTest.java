@@ -0,0 +1,117 @@
+package study.querydsl.sql;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+public class WindowFunctionSupportTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private WindowFunctionSupport windowFunctionSupport;
+
+    /**
+     * H2 는 window function 지원 -> auto 이면 사용<br/>
+     * : probe 전에는 count query
+     */
+    @Test
+    void autoTest() {
+        //given
+        WindowFunctionSupport support = new WindowFunctionSupport(dataSource, "auto");
+        boolean beforeProbe = support.isAvailable();
+
+        //when
+        support.probe();
+
+        //then
+        assertThat(beforeProbe).isFalse();
+        assertThat(support.isAvailable()).isTrue();
+    }
+
+    /**
+     * 시작 시 (ApplicationReadyEvent) 이미 probe 됨
+     */
+    @Test
+    void probeOnStartupTest() {
+        assertThat(windowFunctionSupport.isAvailable()).isTrue();
+    }
+
+    /**
+     * connection 오류 등은 "지원 안 함" 으로 확정하지 않고 다시 시험
+     */
+    @Test
+    void transientFailureTest() {
+        //given
+        AtomicInteger attempts = new AtomicInteger();
+        WindowFunctionSupport support = new WindowFunctionSupport(new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                if (attempts.incrementAndGet() == 1) {
+                    throw new SQLTransientConnectionException("connection is not available");
+                }
+                return super.getConnection();
+            }
+        }, "auto");
+
+        //when
+        support.probe();
+        boolean afterFailure = support.isAvailable();
+        support.retryProbe();
+
+        //then
+        assertThat(afterFailure).isFalse();
+        assertThat(support.isAvailable()).isTrue();
+        assertThat(attempts).hasValue(2);
+    }
+
+    /**
+     * 미지원 예외는 확정 (다시 시험하지 않음)
+     */
+    @Test
+    void unsupportedTest() {
+        //given
+        AtomicInteger attempts = new AtomicInteger();
+        WindowFunctionSupport support = new WindowFunctionSupport(new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                attempts.incrementAndGet();
+                throw new SQLFeatureNotSupportedException("window functions");
+            }
+        }, "auto");
+
+        //when
+        support.probe();
+        support.retryProbe();
+
+        //then
+        assertThat(support.isAvailable()).isFalse();
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void fixedModeTest() {
+        //given
+        WindowFunctionSupport window = new WindowFunctionSupport(dataSource, "window");
+        WindowFunctionSupport count = new WindowFunctionSupport(dataSource, "count");
+
+        //then
+        assertThat(window.isAvailable()).isTrue();
+        assertThat(count.isAvailable()).isFalse();
+        assertThatThrownBy(() -> new WindowFunctionSupport(dataSource, "rownum"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
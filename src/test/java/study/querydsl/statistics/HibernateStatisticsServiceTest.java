@@ -0,0 +1,57 @@
+package study.querydsl.statistics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.QueryStatisticsDto;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.study.TestDataGenerator;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+public class HibernateStatisticsServiceTest extends TestDataGenerator {
+
+    @Autowired
+    private HibernateStatisticsService statisticsService;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Test
+    void mostFrequentWithOriginTest() {
+        //given
+        statisticsService.clear();
+        /* 같은 조건은 result cache 에서 반환되므로 parameter 만 다른 같은 query 로 2회 실행 */
+        MemberSearchCondition conditionA = MemberSearchCondition.builder().teamName("teamA").build();
+        MemberSearchCondition conditionB = MemberSearchCondition.builder().teamName("teamB").build();
+
+        //when
+        memberRepository.search(conditionA);
+        memberRepository.search(conditionB);
+        List<QueryStatisticsDto> actual = statisticsService.mostFrequent(5);
+
+        //then
+        actual.forEach(System.out::println);
+        assertThat(statisticsService.isEnabled()).isTrue();
+        assertThat(actual.get(0).getOrigin()).isEqualTo("MemberRepositoryCustomImpl.search");
+        assertThat(actual.get(0).getExecutionCount()).isEqualTo(2);
+    }
+
+    @Test
+    void summaryTest() {
+        //given
+        statisticsService.clear();
+
+        //when
+        queryFactory.selectFrom(member).fetch();
+        Map<String, Object> actual = statisticsService.summary();
+
+        //then
+        assertThat(actual.get("queryExecutionCount")).isEqualTo(1L);
+        assertThat(actual.get("entityLoadCount")).isEqualTo(4L);
+    }
+}
@@ -0,0 +1,120 @@
+package study.querydsl.support;
+
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import study.querydsl.change.ChangeTracker;
+import study.querydsl.change.TableVersions;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * test context 단위로 dataset 을 1회만 만들고 재사용하는 fixture<br/>
+ * : 최초 load 시 entity persist 후 H2 SCRIPT 로 INSERT 문을 snapshot 해둔다.<br/>
+ * : 이후 load 는 snapshot 을 JDBC batch 로 실행 (sequence 조회, persist, dirty check 생략)<br/>
+ * : 모든 load 는 현재 test transaction 안에서 실행되므로 test 종료시 rollback 으로 원복된다.<br/>
+ * : SCRIPT 는 table 전체를 읽으므로 load 전에 team, member table 이 비어 있는지 확인한다.
+ * (이전 test 가 commit 하고 지우지 않은 데이터가 snapshot 에 섞이거나, restore 시 id 가 겹치지 않도록)
+ */
+@Component
+public class DatasetFixtures {
+    private static final String TEAM_INSERT = "INSERT INTO \"PUBLIC\".\"TEAM\"";
+    private static final String MEMBER_INSERT = "INSERT INTO \"PUBLIC\".\"MEMBER\"";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    @Autowired
+    private ChangeTracker changeTracker;
+
+    private final Map<TestDataset, List<String>> snapshots = new ConcurrentHashMap<>();
+
+    public void load(TestDataset dataset) {
+        Session session = em.unwrap(Session.class);
+        em.flush();
+        session.doWork(connection -> assertEmpty(connection, dataset));
+        List<String> snapshot = snapshots.get(dataset);
+        if (snapshot == null) {
+            dataset.persist(em);
+            em.flush();
+            snapshots.put(dataset, session.doReturningWork(this::script));
+        } else {
+            session.doWork(connection -> restore(connection, snapshot));
+        }
+        em.clear();
+        /* fixture 는 기준 데이터: commit 전 변경으로 보지 않고, 이전 test 의 응답 cache 만 무효화 */
+        changeTracker.discardPendingChanges();
+        tableVersions.bump(TableVersions.TEAM);
+        tableVersions.bump(TableVersions.MEMBER);
+    }
+
+    public Member member(String username) {
+        return em.createQuery("select m from Member m where m.username = :username", Member.class)
+                .setParameter("username", username)
+                .getSingleResult();
+    }
+
+    public Team team(String name) {
+        return em.createQuery("select t from Team t where t.name = :name", Team.class)
+                .setParameter("name", name)
+                .getSingleResult();
+    }
+
+    private void assertEmpty(Connection connection, TestDataset dataset) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select (select count(*) from team), (select count(*) from member)")) {
+            rs.next();
+            long teams = rs.getLong(1);
+            long members = rs.getLong(2);
+            if (teams != 0 || members != 0) {
+                throw new IllegalStateException("dataset " + dataset + " requires empty tables but found "
+                        + teams + " teams, " + members + " members (left over by another test?)");
+            }
+        }
+    }
+
+    /**
+     * FK 순서를 맞추기 위해 team -> member 순서로 INSERT 문을 모은다.
+     */
+    private List<String> script(Connection connection) throws SQLException {
+        List<String> teams = new ArrayList<>();
+        List<String> members = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SCRIPT SIMPLE COLUMNS TABLE PUBLIC.TEAM, PUBLIC.MEMBER")) {
+            while (rs.next()) {
+                String sql = rs.getString(1);
+                if (sql.startsWith(TEAM_INSERT)) {
+                    teams.add(sql);
+                } else if (sql.startsWith(MEMBER_INSERT)) {
+                    members.add(sql);
+                }
+            }
+        }
+        List<String> snapshot = new ArrayList<>(teams);
+        snapshot.addAll(members);
+        return snapshot;
+    }
+
+    private void restore(Connection connection, List<String> snapshot) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : snapshot) {
+                statement.addBatch(sql);
+            }
+            statement.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package study.querydsl.support;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 현재 thread 에서 실행된 PreparedStatement 조회 SQL 을 parameter 값을 채운 형태로 수집 (p6spy listener)<br/>
+ * : 실행계획 test 가 손으로 쓴 SQL 대신 repository 가 실제로 실행한 SQL (join, order by, limit 포함) 을 EXPLAIN 할 때 사용
+ */
+@Component
+public class ExecutedSqlCapture extends JdbcEventListener {
+    private final ThreadLocal<List<String>> captured = new ThreadLocal<>();
+
+    public List<String> capture(Runnable action) {
+        List<String> sqls = new ArrayList<>();
+        captured.set(sqls);
+        try {
+            action.run();
+        } finally {
+            captured.remove();
+        }
+        return sqls;
+    }
+
+    @Override
+    public void onAfterExecuteQuery(PreparedStatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        List<String> sqls = captured.get();
+        if (sqls != null) {
+            sqls.add(statementInformation.getSqlWithValues());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package study.querydsl.support;
+
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+/**
+ * test 공통 dataset<br/>
+ * : {@link DatasetFixtures#load(TestDataset)} 로 적재
+ */
+public enum TestDataset {
+    /**
+     * teamA(member1:10, member2:20), teamB(member3:30, member4:40)
+     */
+    BASIC {
+        @Override
+        void persist(EntityManager em) {
+            Team teamA = Team.builder().name("teamA").build();
+            Team teamB = Team.builder().name("teamB").build();
+            em.persist(teamA);
+            em.persist(teamB);
+
+            em.persist(Member.builder().username("member1").age(10).team(teamA).build());
+            em.persist(Member.builder().username("member2").age(20).team(teamA).build());
+            em.persist(Member.builder().username("member3").age(30).team(teamB).build());
+            em.persist(Member.builder().username("member4").age(40).team(teamB).build());
+        }
+    },
+    /**
+     * member1 ~ member30 (age 1 ~ 30), 홀수 teamA / 짝수 teamB
+     */
+    PAGE {
+        @Override
+        void persist(EntityManager em) {
+            Team teamA = Team.builder().name("teamA").build();
+            Team teamB = Team.builder().name("teamB").build();
+            em.persist(teamA);
+            em.persist(teamB);
+
+            for (int i = 0; i < 30; i++) {
+                em.persist(Member.builder()
+                        .username("member" + (i + 1))
+                        .age(i + 1)
+                        .team(i % 2 == 0 ? teamA : teamB)
+                        .build());
+            }
+        }
+    },
+    /**
+     * member0 ~ member99 (age 0 ~ 99), 짝수 teamA / 홀수 teamB ({@link study.querydsl.controller.InitMember} 와 동일)
+     */
+    INIT {
+        @Override
+        void persist(EntityManager em) {
+            Team teamA = Team.builder().name("teamA").build();
+            Team teamB = Team.builder().name("teamB").build();
+            em.persist(teamA);
+            em.persist(teamB);
+
+            for (int i = 0; i < 100; i++) {
+                em.persist(Member.builder()
+                        .username("member" + i)
+                        .age(i)
+                        .team(i % 2 == 0 ? teamA : teamB)
+                        .build());
+            }
+        }
+    };
+
+    abstract void persist(EntityManager em);
+}